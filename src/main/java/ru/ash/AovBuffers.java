@@ -0,0 +1,87 @@
+package ru.ash;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Дополнительные выходы рендера (AOV) для композитинга: глубина (последний z луча)
+// и число шагов raymarching. Буферы планарные, по одному значению на пиксель,
+// строки сверху вниз. Выключенный буфер не выделяется и не заполняется.
+public class AovBuffers {
+    private final int width;
+    private final int height;
+    private final float[] depth;
+    private final int[] steps;
+
+    public AovBuffers(int width, int height, boolean depth, boolean steps) {
+        this.width = width;
+        this.height = height;
+        this.depth = depth ? new float[width * height] : null;
+        this.steps = steps ? new int[width * height] : null;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    // null, если буфер выключен
+    public float[] getDepth() {
+        return depth;
+    }
+
+    public int[] getSteps() {
+        return steps;
+    }
+
+    // Глубина в PFM с одним каналом (Pf, little-endian, строки снизу вверх)
+    public void writeDepthPfm(Path path) throws IOException {
+        if (depth == null) {
+            throw new IllegalStateException("Depth buffer is not enabled");
+        }
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+            out.write(String.format("Pf\n%d %d\n-1.0\n", width, height).getBytes(StandardCharsets.US_ASCII));
+            ByteBuffer line = ByteBuffer.allocate(width * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            for (int y = height - 1; y >= 0; y--) {
+                line.clear();
+                for (int x = 0; x < width; x++) {
+                    line.putFloat(depth[y * width + x]);
+                }
+                out.write(line.array());
+            }
+        }
+    }
+
+    // Число шагов в PGM с maxval = maxSteps: 8 бит на пиксель, если влезает, иначе 16 (big-endian)
+    public void writeStepsPgm(Path path, int maxSteps) throws IOException {
+        if (steps == null) {
+            throw new IllegalStateException("Step-count buffer is not enabled");
+        }
+        int maxval = Math.max(1, Math.min(maxSteps, 65535));
+        int bytes = maxval < 256 ? 1 : 2;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+            out.write(String.format("P5\n%d %d\n%d\n", width, height, maxval).getBytes(StandardCharsets.US_ASCII));
+            byte[] line = new byte[width * bytes];
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    int v = Math.min(steps[y * width + x], maxval);
+                    if (bytes == 1) {
+                        line[x] = (byte)v;
+                    } else {
+                        line[2 * x] = (byte)(v >> 8);
+                        line[2 * x + 1] = (byte)v;
+                    }
+                }
+                out.write(line);
+            }
+        }
+    }
+}
@@ -1,8 +1,16 @@
 package ru.ash;
 
+import ru.ash.framebuffer.HdrFramebuffer;
+import ru.ash.framebuffer.MipPyramid;
+import ru.ash.framebuffer.PackedHdrFramebuffer;
+import ru.ash.framebuffer.RgbFramebuffer;
+import ru.ash.math.CosineTable;
+import ru.ash.sequence.DeltaSequenceWriter;
+
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 
 
 public class App {
@@ -19,18 +27,196 @@ public class App {
         int frames = 110;  // Количество кадров
         float timeStep = 0.1f; // Шаг времени между кадрами
 
+        // Профиль машины от AutoTuner (-Dprofile=путь); флаги ниже его переопределяют
+        String profilePath = System.getProperty("profile", RenderProfile.DEFAULT_FILE);
+        RenderProfile profile;
+        try {
+            profile = RenderProfile.load(new File(profilePath).toPath());
+        } catch (IOException e) {
+            System.err.println("Error reading profile " + profilePath + ": " + e.getMessage());
+            profile = RenderProfile.defaults();
+        }
+        // -Dlegacy=true: параметры первого рендерера (выход по попаданию, tanh(o/0.09))
+        boolean legacy = Boolean.getBoolean("legacy");
+
+        // Суперсэмплинг: -Dsamples=4 -Dpattern=HALTON (1 сэмпл - обычный рендер)
+        int samples = Integer.getInteger("samples", 1);
+        SamplePattern pattern = SamplePattern.valueOf(System.getProperty("pattern", "STRATIFIED"));
+        // HDR: -Dhdr=true дополнительно сохраняет сырой o в output_NN.pfm
+        boolean hdr = Boolean.getBoolean("hdr");
+        // -Dhdrformat=half|fixed: сырой кадр хранится в 16 битах на канал (PackedHdrFramebuffer),
+        // -Dhdrrange=4096 - диапазон фиксированной точки; по умолчанию float
+        String hdrFormat = System.getProperty("hdrformat", "float");
+        float hdrRange = Float.parseFloat(System.getProperty("hdrrange", "4096"));
+        // -Dmapped=true: кадр рендерится прямо в отображенный в память PPM-файл
+        boolean mapped = Boolean.getBoolean("mapped");
+        // -Dcull=true: отсечение лучей, не попадающих в коробку clamp(p,-3,3)
+        String cull = System.getProperty("cull");
+        // -Dtile=32: тайловый планировщик (дорогие тайлы первыми) со статистикой загрузки потоков
+        int tileSize = Integer.getInteger("tile", profile.tileSize());
+        // -Dthreads=4: число потоков тайлового планировщика
+        int threads = Integer.getInteger("threads", profile.threads());
+        // -Dbatch=4: несколько соседних кадров за один проход по пикселям
+        int batch = Integer.getInteger("batch", 1);
+        // -Dlut=1024: табличный cos(p/.2) с кубической интерполяцией (0 - точный Math.cos)
+        Integer lut = Integer.getInteger("lut");
+        // -Dreference=true: эталонный цикл на аллоцирующих векторах вместо быстрого
+        boolean reference = Boolean.getBoolean("reference");
+        // -Dwarmup=20: прогрев JIT на маленькой области перед первым кадром
+        int warmup = Integer.getInteger("warmup", 0);
+        // -Ddelta=true: вместо отдельных PPM - одна дельта-последовательность ppm/sequence.ppmd
+        boolean delta = Boolean.getBoolean("delta");
+        // -Ddiagnostics=true: память, GC и время каждого кадра в ppm/diagnostics.csv;
+        // -Djfr=true дополнительно пишет JFR-запись рендера в ppm/render.jfr
+        boolean diagnostics = Boolean.getBoolean("diagnostics");
+        boolean jfr = Boolean.getBoolean("jfr");
+        // -Dmips=3: рядом с кадром уменьшенные копии 1/2, 1/4, 1/8 (output_NN_mip1..3.ppm)
+        int mips = Integer.getInteger("mips", 0);
+        // -Daov=depth,steps: глубина (output_NN_depth.pfm) и число шагов (output_NN_steps.pgm)
+        // считаются в том же проходе, что и цвет; отсечение по коробке в этом проходе не действует
+        boolean depthAov = false;
+        boolean stepsAov = false;
+        for (String name : System.getProperty("aov", "").split(",")) {
+            if (name.trim().equals("depth")) {
+                depthAov = true;
+            } else if (name.trim().equals("steps")) {
+                stepsAov = true;
+            } else if (!name.isBlank()) {
+                System.err.println("Unknown AOV '" + name.trim() + "' in -Daov (depth, steps)");
+                return;
+            }
+        }
+        // -Ddither=true: упорядоченный дизеринг 4x4 при квантовании в байты
+        boolean dither = Boolean.getBoolean("dither");
+
         // Создаем рендерер
-        ExactRaymarchingRenderer renderer = new ExactRaymarchingRenderer(w, h);
+        RaymarchEngine renderer = legacy
+                ? new RaymarchingRenderer(w, h)
+                : new ExactRaymarchingRenderer(w, h);
+        renderer.setReference(reference);
+        // Ядро SDF и отсечение из профиля калибруются на ExactRaymarchingRenderer (порог PSNR
+        // на его картинке) и legacy-рендереру не передаются; явные -Dcull и -Dlut - поверх профиля
+        profile.applyTo(renderer);
+        if (cull != null) {
+            if (Boolean.parseBoolean(cull) && !renderer.supportsBoxCulling()) {
+                System.err.println("Box culling (-Dcull=true) is not supported by the legacy renderer");
+                return;
+            }
+            renderer.setBoxCulling(Boolean.parseBoolean(cull));
+        }
+        if (lut != null) {
+            renderer.setCosineTable(lut > 0 ? new CosineTable(lut, CosineTable.Interpolation.CUBIC) : null);
+        }
+        renderer.setDither(dither);
+        renderer.warmUp(warmup);
+        SupersamplingRenderer supersampler = samples > 1
+                ? new SupersamplingRenderer(renderer, samples, pattern)
+                : null;
+        TileScheduler tiles = tileSize > 0
+                ? new TileScheduler(renderer, tileSize, threads)
+                : null;
 
         System.out.println("Starting rendering of " + frames + " frames...");
         System.out.println("Resolution: " + w + "x" + h);
         System.out.println("Output directory: " + dirName);
+        CosineTable table = renderer.getCosineTable();
+        System.out.println("Profile: " + new RenderProfile(tileSize, threads,
+                table != null ? table.getSize() : 0, renderer.isBoxCulling()));
+        if (supersampler != null) {
+            System.out.println("Supersampling: " + samples + " samples/pixel (" + pattern + ")");
+        }
+        if (hdr) {
+            System.out.println("HDR output: enabled (PFM + deferred tonemapping, " + hdrFormat + ")");
+        }
+
+        DeltaSequenceWriter sequence = null;
+        if (delta && mapped) {
+            // mmap-кадр пишется прямо в свой PPM-файл, а дельта-режим заменяет PPM одним файлом
+            System.err.println("-Ddelta=true cannot be combined with -Dmapped=true");
+            return;
+        }
+        if (mapped && (hdr || supersampler != null || batch > 1 || tiles != null)) {
+            // В отображенный файл рендерит только построчный renderFrame(time, RgbFramebuffer);
+            // тайлы могут прийти из профиля - тогда их отключает -Dtile=0
+            System.err.println("-Dmapped=true cannot be combined with -Dhdr, -Dsamples>1, -Dbatch>1 or -Dtile>0");
+            return;
+        }
+        if (!hdr && (System.getProperty("hdrformat") != null || System.getProperty("hdrrange") != null)) {
+            System.err.println("-Dhdrformat and -Dhdrrange require -Dhdr=true");
+            return;
+        }
+        if (System.getProperty("hdrrange") != null && !hdrFormat.equals("fixed")) {
+            System.err.println("-Dhdrrange only applies to -Dhdrformat=fixed");
+            return;
+        }
+        if ((depthAov || stepsAov) && (hdr || supersampler != null || mapped || batch > 1 || tiles != null)) {
+            // AOV считаются только в одиночном проходе по пикселям с выводом в массив;
+            // тайлы могут прийти из профиля - тогда их отключает -Dtile=0
+            System.err.println("-Daov cannot be combined with -Dhdr, -Dsamples>1, -Dmapped, -Dbatch>1 or -Dtile>0");
+            return;
+        }
+        if (delta) {
+            try {
+                sequence = new DeltaSequenceWriter(new File(dirName, "sequence.ppmd").toPath(), w, h);
+            } catch (IOException e) {
+                System.err.println("Error creating delta sequence: " + e.getMessage());
+                return;
+            }
+        }
+
+        FrameDiagnostics diag = null;
+        if (diagnostics) {
+            try {
+                diag = new FrameDiagnostics(new File(dirName, "diagnostics.csv").toPath(),
+                        jfr ? new File(dirName, "render.jfr").toPath() : null);
+            } catch (IOException e) {
+                System.err.println("Error starting diagnostics: " + e.getMessage());
+                return;
+            }
+        }
+
+        PackedHdrFramebuffer packed = null;
+        if (hdrFormat.equals("half")) {
+            packed = PackedHdrFramebuffer.half(w, h);
+        } else if (hdrFormat.equals("fixed")) {
+            packed = PackedHdrFramebuffer.fixed(w, h, hdrRange);
+        } else if (!hdrFormat.equals("float")) {
+            System.err.println("Unknown -Dhdrformat=" + hdrFormat + " (float, half, fixed)");
+            return;
+        }
+
+        MipPyramid pyramid = mips > 0 ? new MipPyramid(w, h, mips) : null;
+        AovBuffers aov = depthAov || stepsAov ? new AovBuffers(w, h, depthAov, stepsAov) : null;
 
+        byte[][] batchFrames = null;
         for (int frame = 0; frame < frames; frame++) {
             // Создаём имя файла с leading zeros: output_00.ppm, output_01.ppm, ...
             String outputPath = String.format("%s/output_%02d.ppm", dirName, frame);
 
-            try (FileOutputStream fos = new FileOutputStream(outputPath)) {
+            if (mapped) {
+                float time = frame * timeStep;
+                System.out.print("Rendering frame " + frame + "/" + frames +
+                        " (time=" + String.format("%.1f", time) + ", mapped)... ");
+                long startTime = System.currentTimeMillis();
+                try (RgbFramebuffer fb = RgbFramebuffer.map(new File(outputPath).toPath(), w, h)) {
+                    if (diag != null) diag.beginFrame();
+                    renderer.renderFrame(time, fb);
+                    if (diag != null) diag.endFrame(frame, time);
+                    if (pyramid != null) {
+                        pyramid.build(fb);
+                        writeMips(pyramid, dirName, frame);
+                    }
+                } catch (IOException e) {
+                    System.err.println("Error writing file " + outputPath + ": " + e.getMessage());
+                    continue;
+                }
+                System.out.println("done in " + (System.currentTimeMillis() - startTime) + "ms");
+                continue;
+            }
+
+            try (OutputStream fos = sequence != null
+                    ? OutputStream.nullOutputStream()
+                    : new FileOutputStream(outputPath)) {
                 // Записываем заголовок PPM
                 String header = String.format("P6\n%d %d\n255\n", w, h);
                 fos.write(header.getBytes());
@@ -43,11 +229,64 @@ public class App {
                         " (time=" + String.format("%.1f", time) + ")... ");
 
                 long startTime = System.currentTimeMillis();
-                byte[] pixels = renderer.renderFrame(time);
+                if (diag != null) diag.beginFrame();
+                byte[] pixels;
+                if (hdr && packed != null) {
+                    if (supersampler != null) {
+                        packed.pack(supersampler.accumulate(time));
+                    } else {
+                        renderer.renderHdr(time, packed);
+                    }
+                    packed.writePfm(new File(String.format("%s/output_%02d.pfm", dirName, frame)).toPath());
+                    pixels = new byte[w * h * 3];
+                    renderer.toneMapper().apply(packed, pixels);
+                } else if (hdr) {
+                    HdrFramebuffer raw = supersampler != null
+                            ? supersampler.accumulate(time)
+                            : renderer.renderHdr(time);
+                    raw.writePfm(new File(String.format("%s/output_%02d.pfm", dirName, frame)).toPath());
+                    pixels = renderer.toneMapper().apply(raw);
+                } else {
+                    if (supersampler != null) {
+                        pixels = supersampler.renderFrame(time);
+                    } else if (aov != null) {
+                        pixels = renderer.renderFrame(time, aov);
+                        if (depthAov) {
+                            aov.writeDepthPfm(new File(String.format("%s/output_%02d_depth.pfm", dirName, frame)).toPath());
+                        }
+                        if (stepsAov) {
+                            aov.writeStepsPgm(new File(String.format("%s/output_%02d_steps.pgm", dirName, frame)).toPath(),
+                                    renderer.getMaxSteps());
+                        }
+                    } else if (batch > 1) {
+                        // Пакет рендерится на первом кадре, остальные кадры берутся готовыми
+                        if (frame % batch == 0) {
+                            float[] times = new float[Math.min(batch, frames - frame)];
+                            for (int k = 0; k < times.length; k++) {
+                                times[k] = (frame + k) * timeStep;
+                            }
+                            batchFrames = renderer.renderFrames(times);
+                        }
+                        pixels = batchFrames[frame % batch];
+                    } else if (tiles != null) {
+                        pixels = tiles.renderFrame(time);
+                        System.out.print("[" + tiles.getLastStats() + "] ");
+                    } else {
+                        pixels = renderer.renderFrame(time);
+                    }
+                }
                 long renderTime = System.currentTimeMillis() - startTime;
+                if (diag != null) diag.endFrame(frame, time);
 
                 // Записываем пиксели в файл
                 fos.write(pixels);
+                if (sequence != null) {
+                    sequence.writeFrame(pixels);
+                }
+                if (pyramid != null) {
+                    pyramid.build(pixels);
+                    writeMips(pyramid, dirName, frame);
+                }
 
                 System.out.println("done in " + renderTime + "ms");
 
@@ -56,6 +295,27 @@ public class App {
             }
         }
 
+        if (tiles != null) {
+            tiles.close();
+        }
+        if (diag != null) {
+            try {
+                diag.close();
+                System.out.println("Diagnostics: " + diag.summary());
+            } catch (IOException e) {
+                System.err.println("Error writing diagnostics: " + e.getMessage());
+            }
+        }
+        if (sequence != null) {
+            try {
+                sequence.close();
+                System.out.println("Delta sequence: " + sequence.getFrameCount() + " frames, "
+                        + String.format("%.1f", sequence.getBytesWritten() / 1024.0) + " KB");
+            } catch (IOException e) {
+                System.err.println("Error closing delta sequence: " + e.getMessage());
+            }
+        }
+
         System.out.println("\nSuccessfully generated " + frames + " files in directory '" + dirName + "'");
 
         // Дополнительная информация
@@ -69,4 +329,16 @@ public class App {
             }
         }
     }
+
+    // Уровни пирамиды, построенные из готового кадра в памяти, пишутся туда же, куда и кадр
+    private static void writeMips(MipPyramid pyramid, String dirName, int frame) throws IOException {
+        for (int level = 0; level < pyramid.getLevelCount(); level++) {
+            String path = String.format("%s/output_%02d_mip%d.ppm", dirName, frame, level + 1);
+            try (OutputStream out = new FileOutputStream(path)) {
+                out.write(String.format("P6\n%d %d\n255\n",
+                        pyramid.getWidth(level), pyramid.getHeight(level)).getBytes());
+                out.write(pyramid.getLevel(level));
+            }
+        }
+    }
 }
@@ -0,0 +1,93 @@
+package ru.ash;
+
+import ru.ash.framebuffer.ImageMetrics;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+// Калибровка под машину: короткие рендеры сцены ExactRaymarchingRenderer по сетке
+// настроек (тайл x потоки x ядро SDF x отсечение). Выбирается самая быстрая настройка,
+// у которой PSNR относительно точного рендера не ниже порога, и сохраняется в профиль.
+// java ru.ash.AutoTuner [profile=render-profile.properties] [width=240] [height=135] [minPsnr=45]
+public class AutoTuner {
+    private static final float[] TIMES = {0.0f, 1.3f, 7.5f};
+    private static final int[] TILE_SIZES = {16, 32, 64, 128};
+    private static final int[] LUT_SIZES = {0, 1024, 4096};
+    // Лучший из нескольких прогонов - меньше шума от GC и соседних процессов
+    private static final int RUNS = 3;
+
+    public static void main(String[] args) throws IOException {
+        Path out = Paths.get(args.length > 0 ? args[0] : RenderProfile.DEFAULT_FILE);
+        int w = args.length > 1 ? Integer.parseInt(args[1]) : 240;
+        int h = args.length > 2 ? Integer.parseInt(args[2]) : 135;
+        double minPsnr = args.length > 3 ? Double.parseDouble(args[3]) : 45.0;
+
+        // Эталон - точное ядро без отсечения
+        ExactRaymarchingRenderer exact = new ExactRaymarchingRenderer(w, h);
+        byte[][] reference = new byte[TIMES.length][];
+        for (int i = 0; i < TIMES.length; i++) {
+            reference[i] = exact.renderFrame(TIMES[i]);
+        }
+
+        RenderProfile best = null;
+        long bestNanos = Long.MAX_VALUE;
+        for (RenderProfile profile : candidates()) {
+            ExactRaymarchingRenderer renderer = new ExactRaymarchingRenderer(w, h);
+            profile.applyTo(renderer);
+            double psnr = Double.POSITIVE_INFINITY;
+            long nanos;
+            try (TileScheduler tiles = new TileScheduler(renderer, profile.tileSize(), profile.threads())) {
+                // Прогрев JIT и стоимостей тайлов, затем замер
+                tiles.renderFrame(TIMES[0]);
+                nanos = 0;
+                for (int i = 0; i < TIMES.length; i++) {
+                    long fastest = Long.MAX_VALUE;
+                    byte[] pixels = null;
+                    for (int run = 0; run < RUNS; run++) {
+                        long start = System.nanoTime();
+                        pixels = tiles.renderFrame(TIMES[i]);
+                        fastest = Math.min(fastest, System.nanoTime() - start);
+                    }
+                    nanos += fastest;
+                    psnr = Math.min(psnr, ImageMetrics.psnr(reference[i], pixels));
+                }
+            }
+            boolean passed = psnr >= minPsnr;
+            System.out.println(String.format("%-44s %8.1fms  PSNR %6.2f dB%s",
+                    profile, nanos / 1e6, psnr, passed ? "" : "  (rejected)"));
+            if (passed && nanos < bestNanos) {
+                best = profile;
+                bestNanos = nanos;
+            }
+        }
+
+        // Точное ядро без отсечения проходит порог всегда, так что best не пуст
+        best.save(out, "AutoTuner " + w + "x" + h + ", minPsnr=" + minPsnr + ", " + bestNanos / 1000000 + "ms");
+        System.out.println("Selected: " + best + " -> " + out.toAbsolutePath());
+    }
+
+    // Потоки: степени двойки до числа ядер и само число ядер
+    static List<RenderProfile> candidates() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        List<Integer> threads = new ArrayList<>();
+        for (int t = 1; t < cores; t *= 2) {
+            threads.add(t);
+        }
+        threads.add(cores);
+
+        List<RenderProfile> result = new ArrayList<>();
+        for (int tile : TILE_SIZES) {
+            for (int t : threads) {
+                for (int lut : LUT_SIZES) {
+                    for (boolean cull : new boolean[] {false, true}) {
+                        result.add(new RenderProfile(tile, t, lut, cull));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+}
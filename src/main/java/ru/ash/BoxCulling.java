@@ -0,0 +1,67 @@
+package ru.ash;
+
+import ru.ash.vectors.Vec3;
+
+// Аналитическое пересечение луча с коробкой clamp(p,-3,3) (slab-тест).
+// Коробка задана в повернутом пространстве: p = rot_xz(z * rayDir + (0,0,8)),
+// поэтому поворот применяется к началу и направлению луча, а не к коробке.
+//
+// Коробка раздувается на margin: вне нее d = length(clamp(p,-3,3)-p) >= margin,
+// и вклад шагов (cos(...)+1.1)/d/z меньше одного уровня яркости после tanh(o/7e1).
+final class BoxCulling {
+    static final float HALF_SIZE = 3.0f;
+
+    // Максимум length(cos(p/.2))/8 = sqrt(3)/8: если d2 больше, то max(d1, d2) == d2
+    static final float MAX_D1 = 0.2166f;
+
+    private BoxCulling() {
+    }
+
+    // false - луч проходит мимо; иначе диапазон глубин z внутри коробки в s.tEnter, s.tExit.
+    // Оси развернуты в скаляры: вызывается на каждый луч из rayMarchInto и не аллоцирует
+    static boolean intersect(Vec3 rayDir, float cosA, float sinA, float margin, RaymarchScratch s) {
+        // Начало луча (0,0,8) и направление после поворота xz
+        float ox = -sinA * 8.0f;
+        float oz = cosA * 8.0f;
+        float dx = cosA * rayDir.x - sinA * rayDir.z;
+        float dy = rayDir.y;
+        float dz = sinA * rayDir.x + cosA * rayDir.z;
+
+        float bound = HALF_SIZE + margin;
+        float tEnter = 0.0f;
+        float tExit = Float.POSITIVE_INFINITY;
+
+        // Луч параллелен граням слоя - либо всегда внутри него, либо никогда
+        if (Math.abs(dx) < 1e-12f) {
+            if (ox < -bound || ox > bound) return false;
+        } else {
+            float inv = 1.0f / dx;
+            float t0 = (-bound - ox) * inv;
+            float t1 = (bound - ox) * inv;
+            tEnter = Math.max(tEnter, Math.min(t0, t1));
+            tExit = Math.min(tExit, Math.max(t0, t1));
+        }
+        // По y начало луча в 0 - внутри слоя при любом запасе
+        if (Math.abs(dy) >= 1e-12f) {
+            float inv = 1.0f / dy;
+            float t0 = -bound * inv;
+            float t1 = bound * inv;
+            tEnter = Math.max(tEnter, Math.min(t0, t1));
+            tExit = Math.min(tExit, Math.max(t0, t1));
+        }
+        if (Math.abs(dz) < 1e-12f) {
+            if (oz < -bound || oz > bound) return false;
+        } else {
+            float inv = 1.0f / dz;
+            float t0 = (-bound - oz) * inv;
+            float t1 = (bound - oz) * inv;
+            tEnter = Math.max(tEnter, Math.min(t0, t1));
+            tExit = Math.min(tExit, Math.max(t0, t1));
+        }
+        if (tEnter > tExit) return false;
+
+        s.tEnter = tEnter;
+        s.tExit = tExit;
+        return true;
+    }
+}
@@ -0,0 +1,72 @@
+package ru.ash;
+
+import ru.ash.sequence.DeltaSequenceReader;
+import ru.ash.sequence.DeltaSequenceWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+// Размер дельта-последовательности против отдельных PPM, скорость кодирования
+// и чтения (последовательно и в случайном порядке).
+// java ru.ash.DeltaSequenceReport [width=320] [height=180] [frames=110]
+public class DeltaSequenceReport {
+    private static final float TIME_STEP = 0.1f;
+    private static final int RANDOM_READS = 50;
+
+    public static void main(String[] args) throws IOException {
+        int w = args.length > 0 ? Integer.parseInt(args[0]) : 320;
+        int h = args.length > 1 ? Integer.parseInt(args[1]) : 180;
+        int frames = args.length > 2 ? Integer.parseInt(args[2]) : 110;
+
+        ExactRaymarchingRenderer renderer = new ExactRaymarchingRenderer(w, h);
+        byte[][] pixels = new byte[frames][];
+        for (int i = 0; i < frames; i++) {
+            pixels[i] = renderer.renderFrame(i * TIME_STEP);
+        }
+        long ppmBytes = (long)frames * (String.format("P6\n%d %d\n255\n", w, h).length() + w * h * 3);
+
+        Path file = Files.createTempFile("sequence", ".ppmd");
+        try {
+            long encodeNanos = 0;
+            try (DeltaSequenceWriter writer = new DeltaSequenceWriter(file, w, h)) {
+                for (byte[] frame : pixels) {
+                    long start = System.nanoTime();
+                    writer.writeFrame(frame);
+                    encodeNanos += System.nanoTime() - start;
+                }
+            }
+            long size = Files.size(file);
+            System.out.println(String.format("%d frames %dx%d: PPM %.1f KB, delta %.1f KB (%.1f%%), encode %.2fms/frame",
+                    frames, w, h, ppmBytes / 1024.0, size / 1024.0, 100.0 * size / ppmBytes, encodeNanos / 1e6 / frames));
+
+            try (DeltaSequenceReader reader = new DeltaSequenceReader(file)) {
+                long start = System.nanoTime();
+                for (int i = 0; i < frames; i++) {
+                    check(pixels[i], reader.readFrame(i), i);
+                }
+                long sequential = System.nanoTime() - start;
+
+                Random random = new Random(42);
+                start = System.nanoTime();
+                for (int i = 0; i < RANDOM_READS; i++) {
+                    int n = random.nextInt(frames);
+                    check(pixels[n], reader.readFrame(n), n);
+                }
+                long randomNanos = System.nanoTime() - start;
+                System.out.println(String.format("read: sequential %.2fms/frame, random access %.2fms/frame",
+                        sequential / 1e6 / frames, randomNanos / 1e6 / RANDOM_READS));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void check(byte[] expected, byte[] actual, int frame) {
+        if (!Arrays.equals(expected, actual)) {
+            throw new IllegalStateException("Frame " + frame + " decoded incorrectly");
+        }
+    }
+}
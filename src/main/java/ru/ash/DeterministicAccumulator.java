@@ -0,0 +1,166 @@
+package ru.ash;
+
+import ru.ash.framebuffer.HdrFramebuffer;
+import ru.ash.vectors.Vec4;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Суперсэмплинг с детерминированным сложением: кадр бит в бит один и тот же
+// при любом числе потоков и любом порядке выполнения задач.
+//
+// Сложение float не ассоциативно, поэтому результат не должен зависеть от того,
+// какой поток какой сэмпл посчитал. Кадр делится на тайлы, сэмплы тайла - на группы,
+// которые считаются параллельно, каждая в свои буферы (отдельный на каждый сэмпл).
+// Когда все группы тайла готовы, буферы складываются строго по номеру сэмпла 0..N-1.
+// Порядок сложения тот же, что в SupersamplingRenderer, поэтому и кадры совпадают с ним.
+public class DeterministicAccumulator implements AutoCloseable {
+    // Сэмплов в одной задаче: меньше - больше параллелизма внутри тайла
+    private static final int SAMPLES_PER_TASK = 4;
+
+    private final RaymarchEngine renderer;
+    private final int samples;
+    private final SamplePattern pattern;
+    private final int tileSize;
+    private final ForkJoinPool pool;
+
+    public DeterministicAccumulator(RaymarchEngine renderer, int samples, SamplePattern pattern,
+                                    int tileSize, int threads) {
+        if (samples < 1 || tileSize < 1 || threads < 1) {
+            throw new IllegalArgumentException("samples, tileSize and threads must be >= 1");
+        }
+        this.renderer = renderer;
+        this.samples = samples;
+        this.pattern = pattern;
+        this.tileSize = tileSize;
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    public byte[] renderFrame(float time) {
+        return renderer.toneMapper().apply(accumulate(time));
+    }
+
+    // Сырой средний цвет RGBA на пиксель (до tanh)
+    public HdrFramebuffer accumulate(float time) {
+        HdrFramebuffer accum = new HdrFramebuffer(renderer.getWidth(), renderer.getHeight());
+        accumulate(time, accum);
+        return accum;
+    }
+
+    public void accumulate(float time, HdrFramebuffer accum) {
+        int tilesX = (renderer.getWidth() + tileSize - 1) / tileSize;
+        int tilesY = (renderer.getHeight() + tileSize - 1) / tileSize;
+        List<TileTask> tiles = new ArrayList<>(tilesX * tilesY);
+        for (int ty = 0; ty < tilesY; ty++) {
+            for (int tx = 0; tx < tilesX; tx++) {
+                tiles.add(new TileTask(time, tx * tileSize, ty * tileSize, accum));
+            }
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tiles);
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    // Тайл: параллельные группы сэмплов, затем сложение в фиксированном порядке
+    @SuppressWarnings("serial") // задачи пула не сериализуются
+    private final class TileTask extends RecursiveAction {
+        private final float time;
+        private final int x0;
+        private final int y0;
+        private final HdrFramebuffer accum;
+
+        TileTask(float time, int x0, int y0, HdrFramebuffer accum) {
+            this.time = time;
+            this.x0 = x0;
+            this.y0 = y0;
+            this.accum = accum;
+        }
+
+        @Override
+        protected void compute() {
+            int w = Math.min(tileSize, renderer.getWidth() - x0);
+            int h = Math.min(tileSize, renderer.getHeight() - y0);
+            // buffers[s] - RGBA сэмпла s для всех пикселей тайла
+            float[][] buffers = new float[samples][w * h * HdrFramebuffer.CHANNELS];
+
+            List<SampleTask> groups = new ArrayList<>();
+            for (int first = 0; first < samples; first += SAMPLES_PER_TASK) {
+                groups.add(new SampleTask(time, x0, y0, w, h, first,
+                        Math.min(SAMPLES_PER_TASK, samples - first), buffers));
+            }
+            invokeAll(groups);
+
+            float inv = 1.0f / samples;
+            for (int y = 0; y < h; y++) {
+                for (int x = 0; x < w; x++) {
+                    int i = (y * w + x) * HdrFramebuffer.CHANNELS;
+                    float r = 0.0f, g = 0.0f, b = 0.0f, a = 0.0f;
+                    for (int s = 0; s < samples; s++) {
+                        float[] sample = buffers[s];
+                        r += sample[i];
+                        g += sample[i + 1];
+                        b += sample[i + 2];
+                        a += sample[i + 3];
+                    }
+                    accum.set(x0 + x, y0 + y, r * inv, g * inv, b * inv, a * inv);
+                }
+            }
+        }
+    }
+
+    // Сэмплы first..first+count-1 тайла, каждый в свой буфер
+    @SuppressWarnings("serial") // задачи пула не сериализуются
+    private final class SampleTask extends RecursiveAction {
+        private final float time;
+        private final int x0;
+        private final int y0;
+        private final int w;
+        private final int h;
+        private final int first;
+        private final int count;
+        private final float[][] buffers;
+
+        SampleTask(float time, int x0, int y0, int w, int h, int first, int count, float[][] buffers) {
+            this.time = time;
+            this.x0 = x0;
+            this.y0 = y0;
+            this.w = w;
+            this.h = h;
+            this.first = first;
+            this.count = count;
+            this.buffers = buffers;
+        }
+
+        @Override
+        protected void compute() {
+            RaymarchScratch scratch = RaymarchScratch.get();
+            float[] offsets = new float[count * 2];
+            for (int y = 0; y < h; y++) {
+                for (int x = 0; x < w; x++) {
+                    int px = x0 + x;
+                    int py = y0 + y;
+                    int i = (y * w + x) * HdrFramebuffer.CHANNELS;
+                    pattern.offsets(px, py, first, count, samples, offsets);
+                    for (int k = 0; k < count; k++) {
+                        Vec4 c = renderer.tracePixel(px + offsets[2 * k], py + offsets[2 * k + 1], time, scratch);
+                        float[] sample = buffers[first + k];
+                        sample[i] = c.x;
+                        sample[i + 1] = c.y;
+                        sample[i + 2] = c.z;
+                        sample[i + 3] = c.w;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package ru.ash;
+
+import ru.ash.vectors.ImmutableVec3;
+import ru.ash.vectors.ImmutableVec4;
+import ru.ash.vectors.Vec3;
+import ru.ash.vectors.Vec4;
+
+import java.lang.management.ManagementFactory;
+
+// Замер аллокаций в горячем цикле rayMarch для изменяемых и неизменяемых векторов.
+// Байты считаются через com.sun.management.ThreadMXBean после прогрева (C2 уже скомпилировал цикл).
+//
+// java ru.ash.EscapeAnalysisReport                          - с escape analysis
+// java -XX:-DoEscapeAnalysis ru.ash.EscapeAnalysisReport    - без него, для сравнения
+// Подробности решений JIT: -XX:+UnlockDiagnosticVMOptions -XX:+PrintCompilation -XX:+PrintInlining
+public class EscapeAnalysisReport {
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int W = 160;
+    private static final int H = 90;
+
+    public static void main(String[] args) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long tid = Thread.currentThread().getId();
+        ExactRaymarchingRenderer renderer = new ExactRaymarchingRenderer(W, H);
+
+        // Направления лучей готовим заранее, чтобы их аллокации не попали в замер
+        Vec3[] dirs = new Vec3[W * H];
+        ImmutableVec3[] valueDirs = new ImmutableVec3[W * H];
+        for (int y = 0; y < H; y++) {
+            for (int x = 0; x < W; x++) {
+                dirs[y * W + x] = renderer.normalizePixelCoords((float)x, (float)y);
+                valueDirs[y * W + x] = ImmutableVec3.of(dirs[y * W + x]);
+            }
+        }
+
+        float sink = 0;
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            sink += mutable(renderer, dirs);
+            sink += immutable(renderer, valueDirs);
+            sink += scratch(renderer, dirs);
+        }
+
+        long before = threads.getThreadAllocatedBytes(tid);
+        long start = System.nanoTime();
+        sink += mutable(renderer, dirs);
+        long mutableNanos = System.nanoTime() - start;
+        long mutableBytes = threads.getThreadAllocatedBytes(tid) - before;
+
+        before = threads.getThreadAllocatedBytes(tid);
+        start = System.nanoTime();
+        sink += immutable(renderer, valueDirs);
+        long valueNanos = System.nanoTime() - start;
+        long valueBytes = threads.getThreadAllocatedBytes(tid) - before;
+
+        before = threads.getThreadAllocatedBytes(tid);
+        start = System.nanoTime();
+        sink += scratch(renderer, dirs);
+        long scratchNanos = System.nanoTime() - start;
+        long scratchBytes = threads.getThreadAllocatedBytes(tid) - before;
+
+        int rays = dirs.length;
+        System.out.println("Escape analysis report (" + rays + " rays, " +
+                ManagementFactory.getRuntimeMXBean().getVmVersion() + ")");
+        System.out.println(String.format("  mutable Vec3/Vec4:    %8.1f bytes/ray  %7.1f ns/ray",
+                (double)mutableBytes / rays, (double)mutableNanos / rays));
+        System.out.println(String.format("  immutable records:    %8.1f bytes/ray  %7.1f ns/ray",
+                (double)valueBytes / rays, (double)valueNanos / rays));
+        System.out.println(String.format("  in-place scratch:     %8.1f bytes/ray  %7.1f ns/ray",
+                (double)scratchBytes / rays, (double)scratchNanos / rays));
+        System.out.println("  (checksum " + sink + ")");
+    }
+
+    private static float mutable(ExactRaymarchingRenderer renderer, Vec3[] dirs) {
+        float sum = 0;
+        for (Vec3 dir : dirs) {
+            Vec4 o = renderer.rayMarch(dir, 1.3f);
+            sum += o.x;
+        }
+        return sum;
+    }
+
+    private static float scratch(ExactRaymarchingRenderer renderer, Vec3[] dirs) {
+        RaymarchScratch scratch = RaymarchScratch.get();
+        float sum = 0;
+        for (Vec3 dir : dirs) {
+            Vec4 o = renderer.rayMarchInto(dir, 1.3f, scratch, scratch.color);
+            sum += o.x;
+        }
+        return sum;
+    }
+
+    private static float immutable(ExactRaymarchingRenderer renderer, ImmutableVec3[] dirs) {
+        float sum = 0;
+        for (ImmutableVec3 dir : dirs) {
+            ImmutableVec4 o = renderer.rayMarchValue(dir, 1.3f);
+            sum += o.x();
+        }
+        return sum;
+    }
+}
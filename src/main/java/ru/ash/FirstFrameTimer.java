@@ -0,0 +1,28 @@
+package ru.ash;
+
+import java.lang.management.ManagementFactory;
+
+// Время до первого кадра с момента старта JVM: запуск и загрузка классов до main,
+// необязательный прогрев JIT и сам первый кадр (в т.ч. работа интерпретатора и C1/C2).
+// Он же - обучающий прогон для архива AppCDS (профиль cds в pom.xml).
+// java ru.ash.FirstFrameTimer [width=64] [height=36] [warmupRounds=0]
+public class FirstFrameTimer {
+
+    public static void main(String[] args) {
+        long mainAt = ManagementFactory.getRuntimeMXBean().getUptime();
+        int w = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int h = args.length > 1 ? Integer.parseInt(args[1]) : 36;
+        int warmup = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+
+        long start = System.nanoTime();
+        ExactRaymarchingRenderer renderer = new ExactRaymarchingRenderer(w, h);
+        renderer.warmUp(warmup);
+        long warmed = System.nanoTime();
+        byte[] pixels = renderer.renderFrame(1.3f);
+        long done = System.nanoTime();
+
+        long firstFrameAt = ManagementFactory.getRuntimeMXBean().getUptime();
+        System.out.println(String.format("%dx%d: JVM->main %dms, warm-up %.1fms, first frame %.1fms, total %dms (%d bytes)",
+                w, h, mainAt, (warmed - start) / 1e6, (done - warmed) / 1e6, firstFrameAt, pixels.length));
+    }
+}
@@ -0,0 +1,215 @@
+package ru.ash;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.RuntimeMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+// Диагностика кадров: выделенная память (все потоки, com.sun.management.ThreadMXBean),
+// число и время сборок (GarbageCollectorMXBean) и самая длинная пауза по уведомлениям GC.
+// Уведомления приходят асинхронно, иногда уже после конца кадра, поэтому пауза относится
+// к кадру по времени начала сборки, а CSV пишется в close(). Рядом - сводка с p50/p99.
+// По желанию пишет JFR-запись только на время рендера.
+public class FrameDiagnostics implements AutoCloseable {
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final RuntimeMXBean runtime = ManagementFactory.getRuntimeMXBean();
+    private final Map<NotificationEmitter, NotificationListener> listeners = new HashMap<>();
+    // Паузы {начало по uptime JVM, длительность} в мс; пишутся из служебного потока
+    private final Queue<long[]> pauses = new ConcurrentLinkedQueue<>();
+
+    private final Path csvPath;
+    private final Path summaryPath;
+    private final Recording recording;
+    private final List<FrameRecord> frames = new ArrayList<>();
+
+    private Map<Long, Long> allocatedAtStart;
+    private long gcCountAtStart;
+    private long gcTimeAtStart;
+    private long startUptime;
+    private long startNanos;
+
+    private record FrameRecord(int frame, float time, long nanos, long allocated, long gcCount, long gcTime,
+                               long startUptime, long endUptime) {
+    }
+
+    public FrameDiagnostics(Path csvPath, Path jfrPath) throws IOException {
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            throw new IOException("Per-thread allocation counters are not supported by this JVM");
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        this.csvPath = csvPath;
+        this.summaryPath = csvPath.resolveSibling(baseName(csvPath) + "_summary.csv");
+
+        for (GarbageCollectorMXBean gc : collectors) {
+            if (gc instanceof NotificationEmitter) {
+                NotificationListener listener = this::onGc;
+                ((NotificationEmitter) gc).addNotificationListener(listener, null, null);
+                listeners.put((NotificationEmitter) gc, listener);
+            }
+        }
+
+        if (jfrPath != null) {
+            try {
+                recording = new Recording(Configuration.getConfiguration("profile"));
+            } catch (ParseException e) {
+                throw new IOException("Cannot load JFR settings", e);
+            }
+            recording.setName("render");
+            recording.setDestination(jfrPath);
+            recording.start();
+        } else {
+            recording = null;
+        }
+    }
+
+    public void beginFrame() {
+        allocatedAtStart = allocatedByThread();
+        gcCountAtStart = gcCount();
+        gcTimeAtStart = gcTime();
+        startUptime = runtime.getUptime();
+        startNanos = System.nanoTime();
+    }
+
+    public void endFrame(int frame, float time) {
+        long nanos = System.nanoTime() - startNanos;
+        // Потоки пула живут между кадрами; новые потоки начинают с нуля
+        long allocated = 0;
+        for (Map.Entry<Long, Long> e : allocatedByThread().entrySet()) {
+            allocated += e.getValue() - allocatedAtStart.getOrDefault(e.getKey(), 0L);
+        }
+        frames.add(new FrameRecord(frame, time, nanos, allocated, gcCount() - gcCountAtStart,
+                gcTime() - gcTimeAtStart, startUptime, runtime.getUptime()));
+    }
+
+    private void onGc(Notification notification, Object handback) {
+        if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            GarbageCollectionNotificationInfo info =
+                    GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            pauses.add(new long[] {info.getGcInfo().getStartTime(), info.getGcInfo().getDuration()});
+        }
+    }
+
+    private Map<Long, Long> allocatedByThread() {
+        long[] ids = threads.getAllThreadIds();
+        long[] bytes = threads.getThreadAllocatedBytes(ids);
+        Map<Long, Long> result = new HashMap<>(ids.length * 2);
+        for (int i = 0; i < ids.length; i++) {
+            if (bytes[i] >= 0) {
+                result.put(ids[i], bytes[i]);
+            }
+        }
+        return result;
+    }
+
+    private long gcCount() {
+        long sum = 0;
+        for (GarbageCollectorMXBean gc : collectors) {
+            sum += Math.max(0, gc.getCollectionCount());
+        }
+        return sum;
+    }
+
+    private long gcTime() {
+        long sum = 0;
+        for (GarbageCollectorMXBean gc : collectors) {
+            sum += Math.max(0, gc.getCollectionTime());
+        }
+        return sum;
+    }
+
+    // Сводка: p50/p99 времени кадра, выделено всего и на кадр, число сборок
+    public String summary() {
+        if (frames.isEmpty()) {
+            return "no frames";
+        }
+        long[] sorted = sortedFrameNanos();
+        long allocated = frames.stream().mapToLong(FrameRecord::allocated).sum();
+        return String.format(Locale.ROOT, "frames=%d p50=%.1fms p99=%.1fms allocated=%.1fMB (%.1fKB/frame) gc=%d",
+                sorted.length, percentile(sorted, 50) / 1e6, percentile(sorted, 99) / 1e6,
+                allocated / 1048576.0, allocated / 1024.0 / sorted.length,
+                frames.stream().mapToLong(FrameRecord::gcCount).sum());
+    }
+
+    private long[] sortedFrameNanos() {
+        long[] sorted = frames.stream().mapToLong(FrameRecord::nanos).toArray();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    // Ближайший ранг: наименьшее значение, не меньше которого p% выборки
+    static long percentile(long[] sorted, int p) {
+        int rank = (int)Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (recording != null) {
+            recording.stop();
+            recording.close();
+        }
+        for (Map.Entry<NotificationEmitter, NotificationListener> e : listeners.entrySet()) {
+            try {
+                e.getKey().removeNotificationListener(e.getValue());
+            } catch (ListenerNotFoundException ignored) {
+                // уже снят
+            }
+        }
+
+        try (PrintWriter csv = new PrintWriter(Files.newBufferedWriter(csvPath))) {
+            csv.println("frame,time,frame_ms,allocated_bytes,gc_count,gc_time_ms,max_gc_pause_ms");
+            for (FrameRecord f : frames) {
+                long maxPause = 0;
+                for (long[] pause : pauses) {
+                    if (pause[0] >= f.startUptime() && pause[0] <= f.endUptime()) {
+                        maxPause = Math.max(maxPause, pause[1]);
+                    }
+                }
+                csv.println(String.format(Locale.ROOT, "%d,%.2f,%.3f,%d,%d,%d,%d", f.frame(), f.time(),
+                        f.nanos() / 1e6, f.allocated(), f.gcCount(), f.gcTime(), maxPause));
+            }
+        }
+
+        long[] sorted = sortedFrameNanos();
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(summaryPath))) {
+            out.println("metric,value");
+            out.println("frames," + sorted.length);
+            if (sorted.length > 0) {
+                out.println(String.format(Locale.ROOT, "p50_frame_ms,%.3f", percentile(sorted, 50) / 1e6));
+                out.println(String.format(Locale.ROOT, "p99_frame_ms,%.3f", percentile(sorted, 99) / 1e6));
+            }
+            out.println("allocated_bytes," + frames.stream().mapToLong(FrameRecord::allocated).sum());
+            out.println("gc_count," + frames.stream().mapToLong(FrameRecord::gcCount).sum());
+        }
+    }
+
+    private static String baseName(Path path) {
+        String name = path.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+}
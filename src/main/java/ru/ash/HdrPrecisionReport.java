@@ -0,0 +1,90 @@
+package ru.ash;
+
+import ru.ash.framebuffer.HdrFramebuffer;
+import ru.ash.framebuffer.ImageMetrics;
+import ru.ash.framebuffer.PackedHdrFramebuffer;
+import ru.ash.framebuffer.PixelFormat;
+import ru.ash.framebuffer.ToneMapper;
+
+// Точность и скорость упакованных 16-битных HDR-кадров относительно float на эталонной сцене:
+// PSNR и максимальная разница байт после тонмаппинга, максимальная относительная ошибка
+// сырого цвета, размер кадра и время тонмаппинга (распаковка + tanh).
+// java ru.ash.HdrPrecisionReport [width=320] [height=180] [range=4096]
+public class HdrPrecisionReport {
+    private static final float[] TIMES = {0.0f, 1.3f, 7.5f};
+    private static final int RUNS = 5;
+
+    public static void main(String[] args) {
+        int w = args.length > 0 ? Integer.parseInt(args[0]) : 320;
+        int h = args.length > 1 ? Integer.parseInt(args[1]) : 180;
+        // Для фиксированной точки: сырой o эталонной сцены доходит до ~2300
+        float range = args.length > 2 ? Float.parseFloat(args[2]) : 4096.0f;
+
+        ExactRaymarchingRenderer renderer = new ExactRaymarchingRenderer(w, h);
+        ToneMapper toneMapper = renderer.toneMapper();
+        HdrFramebuffer[] frames = new HdrFramebuffer[TIMES.length];
+        byte[][] reference = new byte[TIMES.length][];
+        long floatNanos = 0;
+        for (int i = 0; i < TIMES.length; i++) {
+            frames[i] = renderer.renderHdr(TIMES[i]);
+            reference[i] = new byte[w * h * 3];
+            floatNanos += timeToneMap(toneMapper, frames[i], null, reference[i]);
+        }
+        System.out.println(String.format("RGBA32F: %7.1f KB  tonemap %6.2fms", frameKb(w, h, PixelFormat.RGBA32F),
+                floatNanos / 1e6 / TIMES.length));
+
+        for (PixelFormat format : new PixelFormat[] {PixelFormat.RGBA16F, PixelFormat.RGBA16}) {
+            double minPsnr = Double.POSITIVE_INFINITY;
+            int maxDiff = 0;
+            double maxRelative = 0.0;
+            long nanos = 0;
+            for (int i = 0; i < TIMES.length; i++) {
+                PackedHdrFramebuffer packed = PackedHdrFramebuffer.of(frames[i], format, range);
+                byte[] pixels = new byte[w * h * 3];
+                nanos += timeToneMap(toneMapper, null, packed, pixels);
+                minPsnr = Math.min(minPsnr, ImageMetrics.psnr(reference[i], pixels));
+                maxDiff = Math.max(maxDiff, ImageMetrics.maxDifference(reference[i], pixels));
+                maxRelative = Math.max(maxRelative, maxRelativeError(frames[i], packed.toHdr()));
+            }
+            System.out.println(String.format("%-7s: %7.1f KB  tonemap %6.2fms  PSNR %6.2f dB  max diff %d  "
+                            + "max rel. error %.4f%%%s",
+                    format, frameKb(w, h, format), nanos / 1e6 / TIMES.length, minPsnr, maxDiff,
+                    maxRelative * 100, format == PixelFormat.RGBA16 ? "  (range " + range + ")" : ""));
+        }
+    }
+
+    // Лучшее время из RUNS, первый прогон заодно греет JIT
+    private static long timeToneMap(ToneMapper toneMapper, HdrFramebuffer hdr, PackedHdrFramebuffer packed,
+                                    byte[] dst) {
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            if (hdr != null) {
+                toneMapper.apply(hdr, dst);
+            } else {
+                toneMapper.apply(packed, dst);
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static double maxRelativeError(HdrFramebuffer reference, HdrFramebuffer test) {
+        double max = 0.0;
+        for (int y = 0; y < reference.getHeight(); y++) {
+            for (int x = 0; x < reference.getWidth(); x++) {
+                for (int c = 0; c < 3; c++) {
+                    float r = reference.get(x, y, c);
+                    if (r != 0.0f) {
+                        max = Math.max(max, Math.abs(test.get(x, y, c) - r) / Math.abs(r));
+                    }
+                }
+            }
+        }
+        return max;
+    }
+
+    private static double frameKb(int w, int h, PixelFormat format) {
+        return (double)w * h * format.getBytesPerPixel() / 1024.0;
+    }
+}
@@ -0,0 +1,50 @@
+package ru.ash;
+
+import ru.ash.framebuffer.ImageMetrics;
+import ru.ash.math.CosineTable;
+
+// Качество и скорость табличного cos(p/.2) относительно точного рендера.
+// java ru.ash.LutQualityReport [width=320] [height=180]
+public class LutQualityReport {
+    private static final float[] TIMES = {0.0f, 1.3f, 7.5f};
+
+    public static void main(String[] args) {
+        int w = args.length > 0 ? Integer.parseInt(args[0]) : 320;
+        int h = args.length > 1 ? Integer.parseInt(args[1]) : 180;
+
+        ExactRaymarchingRenderer exact = new ExactRaymarchingRenderer(w, h);
+        // Прогрев JIT, чтобы первый замер не проигрывал из-за интерпретатора
+        time(exact, TIMES[0], new byte[w * h * 3]);
+        byte[][] reference = new byte[TIMES.length][];
+        long exactNanos = 0;
+        for (int i = 0; i < TIMES.length; i++) {
+            reference[i] = new byte[w * h * 3];
+            exactNanos += time(exact, TIMES[i], reference[i]);
+        }
+        System.out.println(String.format("exact Math.cos:            %7.1fms", exactNanos / 1e6));
+
+        for (CosineTable.Interpolation mode : CosineTable.Interpolation.values()) {
+            for (int size : new int[] {64, 256, 1024, 4096}) {
+                ExactRaymarchingRenderer fast = new ExactRaymarchingRenderer(w, h);
+                fast.setCosineTable(new CosineTable(size, mode));
+                double minPsnr = Double.POSITIVE_INFINITY;
+                int maxDiff = 0;
+                long nanos = 0;
+                for (int i = 0; i < TIMES.length; i++) {
+                    byte[] pixels = new byte[w * h * 3];
+                    nanos += time(fast, TIMES[i], pixels);
+                    minPsnr = Math.min(minPsnr, ImageMetrics.psnr(reference[i], pixels));
+                    maxDiff = Math.max(maxDiff, ImageMetrics.maxDifference(reference[i], pixels));
+                }
+                System.out.println(String.format("%-6s %5d entries (%5d B): %7.1fms  PSNR %6.2f dB  max diff %d",
+                        mode, size, (size + 3) * 4, nanos / 1e6, minPsnr, maxDiff));
+            }
+        }
+    }
+
+    private static long time(ExactRaymarchingRenderer renderer, float t, byte[] dst) {
+        long start = System.nanoTime();
+        renderer.renderRows(t, 0, renderer.getHeight(), dst, 0);
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,260 @@
+package ru.ash;
+
+import ru.ash.framebuffer.ToneMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+// Перебор параметров сцены ExactRaymarchingRenderer за один запуск: uniform r, масштаб tanh,
+// число шагов и сдвиг по времени. Варианты - декартово произведение списков.
+//
+// Все задания идут в один общий пул, задание - один сырой проход (r, время кадра).
+// Варианты делят его, где марш общий:
+// - масштаб tanh на raymarching не влияет - варианты различаются лишь тонмаппингом;
+// - марш с меньшим числом шагов - префикс длинного, все steps снимаются с одного луча;
+// - одинаковое время (frame * timeStep + offset) у разных сдвигов считается один раз.
+// Разные r дают разные лучи и трассируются отдельно.
+// На выходе - отдельные кадры и контактный лист (строка - вариант, столбец - кадр).
+public class ParameterSweep {
+    private static final int GAP = 2;
+
+    // Списки значений каждого параметра
+    public record Matrix(float[] r, float[] tanhScales, int[] steps, float[] timeOffsets) {
+
+        // r=0.5,0.4  tanh=70,35  steps=50,25  offset=0,0.5
+        public static Matrix load(Properties props) {
+            return new Matrix(
+                    floats(props.getProperty("r", "0.5")),
+                    floats(props.getProperty("tanh", "70")),
+                    ints(props.getProperty("steps", "50")),
+                    floats(props.getProperty("offset", "0")));
+        }
+    }
+
+    // Один вариант; r задает все три компоненты uniform
+    public record Variant(int index, float r, float tanhScale, int steps, float timeOffset) {
+    }
+
+    private final int width;
+    private final int height;
+    private final int frames;
+    private final float timeStep;
+    private final Matrix matrix;
+    // Сколько сырых проходов реально протрассировано (по одному на пару r и время кадра)
+    private final LongAdder rawFrames = new LongAdder();
+
+    public ParameterSweep(int width, int height, int frames, float timeStep, Matrix matrix) {
+        this.width = width;
+        this.height = height;
+        this.frames = frames;
+        this.timeStep = timeStep;
+        this.matrix = matrix;
+    }
+
+    // Порядок: r, steps, offset, затем tanh
+    public List<Variant> variants() {
+        List<Variant> result = new ArrayList<>();
+        for (float r : matrix.r()) {
+            for (int steps : matrix.steps()) {
+                for (float offset : matrix.timeOffsets()) {
+                    for (float tanh : matrix.tanhScales()) {
+                        result.add(new Variant(result.size(), r, tanh, steps, offset));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    // Кадры RGB8 [вариант][кадр]
+    public byte[][][] run(int threads) throws InterruptedException {
+        List<Variant> variants = variants();
+        byte[][][] result = new byte[variants.size()][frames][];
+        int[] steps = Arrays.stream(matrix.steps()).distinct().sorted().toArray();
+
+        List<Callable<Void>> jobs = new ArrayList<>();
+        for (float r : matrix.r()) {
+            // Один движок на r: настройки не меняются во время рендера
+            ExactRaymarchingRenderer renderer = new ExactRaymarchingRenderer(width, height);
+            renderer.setR(r, r, r);
+            // Время кадра -> (вариант, кадр), которым нужен этот сырой проход
+            Map<Float, List<int[]>> outputs = new LinkedHashMap<>();
+            for (Variant v : variants) {
+                if (v.r() == r) {
+                    for (int frame = 0; frame < frames; frame++) {
+                        outputs.computeIfAbsent(frame * timeStep + v.timeOffset(), t -> new ArrayList<>())
+                                .add(new int[] {v.index(), frame});
+                    }
+                }
+            }
+            for (Map.Entry<Float, List<int[]>> e : outputs.entrySet()) {
+                jobs.add(() -> {
+                    renderRaw(renderer, e.getKey(), steps, e.getValue(), variants, result);
+                    return null;
+                });
+            }
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (Future<Void> done : pool.invokeAll(jobs)) {
+                try {
+                    done.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Sweep job failed", e.getCause());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return result;
+    }
+
+    // Сырой кадр для всех чисел шагов сразу, затем тонмаппинг под каждый выход
+    private void renderRaw(RaymarchEngine renderer, float time, int[] steps, List<int[]> outputs,
+                           List<Variant> variants, byte[][][] result) {
+        int rowFloats = width * 4;
+        float[][] raw = new float[steps.length][height * rowFloats];
+        float[] pixel = new float[steps.length * 4];
+        rawFrames.increment();
+        RaymarchScratch scratch = RaymarchScratch.get();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                renderer.tracePixelSteps(x, y, time, steps, pixel, scratch);
+                for (int j = 0; j < steps.length; j++) {
+                    System.arraycopy(pixel, j * 4, raw[j], y * rowFloats + x * 4, 4);
+                }
+            }
+        }
+
+        // mapRow тонмаппит строку на месте - каждому выходу своя копия
+        float[] row = scratch.row(width);
+        for (int[] output : outputs) {
+            Variant variant = variants.get(output[0]);
+            float[] src = raw[Arrays.binarySearch(steps, variant.steps())];
+            ToneMapper toneMapper = new ToneMapper(variant.tanhScale(), 1.00f);
+            byte[] pixels = new byte[width * height * 3];
+            for (int y = 0; y < height; y++) {
+                System.arraycopy(src, y * rowFloats, row, 0, rowFloats);
+                toneMapper.mapRow(row, width, pixels, y * width * 3, 0, y);
+            }
+            result[output[0]][output[1]] = pixels;
+        }
+    }
+
+    public long getRawFrameCount() {
+        return rawFrames.sum();
+    }
+
+    // Контактный лист: кадры вариантов в сетке с черными промежутками GAP пикселей
+    public byte[] contactSheet(byte[][][] frames) {
+        int sheetWidth = sheetWidth();
+        byte[] sheet = new byte[sheetWidth * sheetHeight(frames.length) * 3];
+        for (int v = 0; v < frames.length; v++) {
+            for (int f = 0; f < frames[v].length; f++) {
+                int x0 = GAP + f * (width + GAP);
+                int y0 = GAP + v * (height + GAP);
+                for (int y = 0; y < height; y++) {
+                    System.arraycopy(frames[v][f], y * width * 3, sheet, ((y0 + y) * sheetWidth + x0) * 3, width * 3);
+                }
+            }
+        }
+        return sheet;
+    }
+
+    public int sheetWidth() {
+        return GAP + frames * (width + GAP);
+    }
+
+    public int sheetHeight(int variants) {
+        return GAP + variants * (height + GAP);
+    }
+
+    // java ru.ash.ParameterSweep [matrix.properties] [outDir=sweep]
+    // В properties кроме списков параметров: width, height, frames, timeStep, threads
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Properties props = new Properties();
+        if (args.length > 0) {
+            try (InputStream in = Files.newInputStream(Paths.get(args[0]))) {
+                props.load(in);
+            }
+        }
+        Path dir = Paths.get(args.length > 1 ? args[1] : "sweep");
+        Files.createDirectories(dir);
+
+        int w = Integer.parseInt(props.getProperty("width", "160"));
+        int h = Integer.parseInt(props.getProperty("height", "90"));
+        int frames = Integer.parseInt(props.getProperty("frames", "4"));
+        float timeStep = Float.parseFloat(props.getProperty("timeStep", "0.5"));
+        int threads = Integer.parseInt(props.getProperty("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+
+        ParameterSweep sweep = new ParameterSweep(w, h, frames, timeStep, Matrix.load(props));
+        List<Variant> variants = sweep.variants();
+        System.out.println("Sweep: " + variants.size() + " variants x " + frames + " frames, "
+                + w + "x" + h + ", " + threads + " threads");
+
+        long start = System.nanoTime();
+        byte[][][] result = sweep.run(threads);
+        System.out.println(String.format("Rendered in %.1fms (%d raw frames for %d outputs)",
+                (System.nanoTime() - start) / 1e6, sweep.getRawFrameCount(), variants.size() * frames));
+
+        try (PrintWriter index = new PrintWriter(Files.newBufferedWriter(dir.resolve("variants.csv")))) {
+            index.println("variant,r,tanh,steps,offset");
+            for (Variant v : variants) {
+                index.println(String.format(Locale.ROOT, "%d,%s,%s,%d,%s",
+                        v.index(), v.r(), v.tanhScale(), v.steps(), v.timeOffset()));
+                for (int f = 0; f < frames; f++) {
+                    writePpm(dir.resolve(String.format("variant_%02d_frame_%02d.ppm", v.index(), f)), w, h, result[v.index()][f]);
+                }
+            }
+        }
+        writePpm(dir.resolve("contact_sheet.ppm"), sweep.sheetWidth(), sweep.sheetHeight(variants.size()),
+                sweep.contactSheet(result));
+        System.out.println("Written to " + dir.toAbsolutePath());
+    }
+
+    private static void writePpm(Path path, int w, int h, byte[] pixels) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            out.write(String.format("P6\n%d %d\n255\n", w, h).getBytes(StandardCharsets.US_ASCII));
+            out.write(pixels);
+        }
+    }
+
+    private static float[] floats(String list) {
+        String[] parts = list.split(",");
+        float[] values = new float[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            values[i] = Float.parseFloat(parts[i].trim());
+        }
+        return values;
+    }
+
+    private static int[] ints(String list) {
+        String[] parts = list.split(",");
+        int[] values = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            values[i] = Integer.parseInt(parts[i].trim());
+        }
+        return values;
+    }
+}
@@ -0,0 +1,112 @@
+package ru.ash;
+
+import ru.ash.framebuffer.BulkQuantizer;
+import ru.ash.framebuffer.HdrFramebuffer;
+import ru.ash.framebuffer.ImageMetrics;
+import ru.ash.framebuffer.ToneMapper;
+
+import java.util.Arrays;
+
+// Сравнение вывода кадра в байты: старый путь (ToneMapper.map и три записи на пиксель)
+// против строчного (tanh по строке + BulkQuantizer), с дизерингом и без.
+// Отдельно - только квантование уже отображенных значений, без tanh.
+// Однопоточно, лучшее время из RUNS после прогрева.
+// java ru.ash.QuantizeBenchmark [width=960] [height=540]
+public class QuantizeBenchmark {
+    private static final int WARMUP = 20;
+    private static final int RUNS = 20;
+
+    public static void main(String[] args) {
+        int w = args.length > 0 ? Integer.parseInt(args[0]) : 960;
+        int h = args.length > 1 ? Integer.parseInt(args[1]) : 540;
+
+        ExactRaymarchingRenderer renderer = new ExactRaymarchingRenderer(w, h);
+        HdrFramebuffer hdr = renderer.renderHdr(1.3f);
+        float[][] raw = new float[h][w * HdrFramebuffer.CHANNELS];
+        for (int y = 0; y < h; y++) {
+            hdr.getRow(y, raw[y]);
+        }
+        ToneMapper plain = renderer.toneMapper();
+        ToneMapper dithered = new ToneMapper(plain.getScale(), plain.getBoost(), plain.getMapping(), true);
+
+        byte[] perPixel = new byte[w * h * 3];
+        byte[] bulk = new byte[w * h * 3];
+        byte[] dither = new byte[w * h * 3];
+        float[] row = new float[w * HdrFramebuffer.CHANNELS];
+
+        long perPixelNanos = best(() -> {
+            for (int y = 0; y < h; y++) {
+                float[] src = raw[y];
+                int offset = y * w * 3;
+                for (int x = 0; x < w; x++) {
+                    int i = x * HdrFramebuffer.CHANNELS;
+                    perPixel[offset++] = plain.map(src[i]);
+                    perPixel[offset++] = plain.map(src[i + 1]);
+                    perPixel[offset++] = plain.map(src[i + 2]);
+                }
+            }
+        });
+        long bulkNanos = best(() -> {
+            for (int y = 0; y < h; y++) {
+                System.arraycopy(raw[y], 0, row, 0, row.length);
+                plain.mapRow(row, w, bulk, y * w * 3, 0, y);
+            }
+        });
+        long ditherNanos = best(() -> {
+            for (int y = 0; y < h; y++) {
+                System.arraycopy(raw[y], 0, row, 0, row.length);
+                dithered.mapRow(row, w, dither, y * w * 3, 0, y);
+            }
+        });
+
+        // Только квантование: значения после tanh готовы заранее
+        float[][] toned = new float[h][w * HdrFramebuffer.CHANNELS];
+        for (int y = 0; y < h; y++) {
+            for (int i = 0; i < toned[y].length; i++) {
+                toned[y][i] = plain.tone(raw[y][i]);
+            }
+        }
+        byte[] storesOut = new byte[w * h * 3];
+        byte[] varHandleOut = new byte[w * h * 3];
+        long storesNanos = best(() -> {
+            for (int y = 0; y < h; y++) {
+                float[] src = toned[y];
+                int offset = y * w * 3;
+                for (int x = 0; x < w; x++) {
+                    int i = x * HdrFramebuffer.CHANNELS;
+                    storesOut[offset++] = (byte)(src[i] * 255);
+                    storesOut[offset++] = (byte)(src[i + 1] * 255);
+                    storesOut[offset++] = (byte)(src[i + 2] * 255);
+                }
+            }
+        });
+        long varHandleNanos = best(() -> {
+            for (int y = 0; y < h; y++) {
+                BulkQuantizer.quantizeRow(toned[y], w, varHandleOut, y * w * 3);
+            }
+        });
+
+        System.out.println(w + "x" + h + ", one thread, best of " + RUNS);
+        System.out.println(String.format("tone + quantize, per pixel:     %7.2fms", perPixelNanos / 1e6));
+        System.out.println(String.format("tone + quantize, row + bulk:    %7.2fms  identical: %s",
+                bulkNanos / 1e6, Arrays.equals(perPixel, bulk)));
+        System.out.println(String.format("tone + quantize, bulk + dither: %7.2fms  PSNR vs plain %.2f dB",
+                ditherNanos / 1e6, ImageMetrics.psnr(perPixel, dither)));
+        System.out.println(String.format("quantize only, byte stores:     %7.2fms", storesNanos / 1e6));
+        System.out.println(String.format("quantize only, VarHandle ints:  %7.2fms  identical: %s",
+                varHandleNanos / 1e6, Arrays.equals(storesOut, varHandleOut)));
+    }
+
+    private static long best(Runnable body) {
+        for (int i = 0; i < WARMUP; i++) {
+            body.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            body.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
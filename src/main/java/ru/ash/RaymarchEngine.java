@@ -0,0 +1,576 @@
+package ru.ash;
+
+import ru.ash.framebuffer.ColorMapping;
+import ru.ash.framebuffer.HdrFramebuffer;
+import ru.ash.framebuffer.PackedHdrFramebuffer;
+import ru.ash.framebuffer.RgbFramebuffer;
+import ru.ash.framebuffer.ToneMapper;
+import ru.ash.math.CosineTable;
+import ru.ash.matrix.Mat2;
+import ru.ash.matrix.RotationCache;
+import ru.ash.vectors.Vec2;
+import ru.ash.vectors.Vec3;
+import ru.ash.vectors.Vec4;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+// Общий движок raymarching для обоих рендереров. Различия между ними заданы параметрами:
+// построение луча (RaySetup), ранний выход (EarlyExit), масштаб tanh и ColorMapping.
+// Быстрый путь (rayMarchInto) и все драйверы кадра - один код, эталонный путь
+// (rayMarch, построчная копия шейдера) включается setReference(true).
+public class RaymarchEngine implements Renderer {
+    // Построение направления луча по координатам пикселя
+    public enum RaySetup {
+        // normalize(FC.rgb*2.-r.xyy) - как в шейдере
+        SHADER,
+        // normalize(vec3(2*x/w-1, 2*y/h-1, 0)) - как в RaymarchingRenderer
+        CENTERED
+    }
+
+    // Когда луч прекращает маршировать
+    public enum EarlyExit {
+        // Только по дальности z > 100 - шаг, на котором это случилось, еще дает цвет
+        NONE,
+        // Еще и по попаданию в поверхность d < 0.001; выход проверяется до накопления цвета
+        SURFACE_HIT
+    }
+
+    // Константы из шейдера
+    static final int MAX_STEPS = 50;          // 5e1
+    static final float MAX_DISTANCE = 100.0f;
+    static final float MIN_DISTANCE = 0.001f;
+
+    // Запас BoxCulling выведен для tanh(o/7e1) и CLAMP: с меньшим масштабом tanh отброшенный
+    // вклад заметнее, а при SIGNED нулевой o отсеченного луча дает серый 127 вместо черного
+    static final float CULLING_MIN_TANH_SCALE = 70.0f;
+
+    private final int width;
+    private final int height;
+    private final RaySetup raySetup;
+    private final EarlyExit earlyExit;
+    private final float tanhScale;
+    private ToneMapper toneMapper;
+
+    // Для r.xyy - возможно это uniform или что-то подобное
+    // Для начала используем (0.5, 0.5, 0.5)
+    private final Vec3 r = new Vec3(0.5f, 0.5f, 0.5f);
+
+    // Число шагов цикла (5e1 в шейдере)
+    private int maxSteps = MAX_STEPS;
+
+    // Отсечение лучей по коробке clamp(p,-3,3), см. BoxCulling. По умолчанию выключено -
+    // эталонный рендер остается точной копией шейдера.
+    private boolean boxCulling = false;
+    private float cullingMargin = 2.0f;
+
+    // Табличный cos для члена length(cos(p/.2))/8; null - точный Math.cos
+    private CosineTable cosineTable = null;
+
+    // Эталонный путь на аллоцирующих векторах вместо быстрого
+    private boolean reference = false;
+
+    // Счетчик шагов raymarching (для замера выигрыша от отсечения)
+    private final LongAdder stepCount = new LongAdder();
+
+    public RaymarchEngine(int width, int height, RaySetup raySetup, EarlyExit earlyExit,
+                          float tanhScale, ColorMapping colorMapping) {
+        this.width = width;
+        this.height = height;
+        this.raySetup = raySetup;
+        this.earlyExit = earlyExit;
+        this.tanhScale = tanhScale;
+        this.toneMapper = new ToneMapper(tanhScale, 1.00f, colorMapping);
+    }
+
+    public void setBoxCulling(boolean boxCulling) {
+        if (boxCulling && !supportsBoxCulling()) {
+            throw new IllegalArgumentException("Box culling is only valid for tanh scale >= "
+                    + CULLING_MIN_TANH_SCALE + " with CLAMP mapping, not tanh(o/" + tanhScale + ") with "
+                    + toneMapper.getMapping());
+        }
+        this.boxCulling = boxCulling;
+    }
+
+    // Отсечение не меняет картинку больше чем на уровень только при таких параметрах тонмаппинга
+    public boolean supportsBoxCulling() {
+        return tanhScale >= CULLING_MIN_TANH_SCALE && toneMapper.getMapping() == ColorMapping.CLAMP;
+    }
+
+    public boolean isBoxCulling() {
+        return boxCulling;
+    }
+
+    // Запас вокруг коробки: 2.0 - расхождение с точным рендером не больше 1 уровня
+    public void setCullingMargin(float cullingMargin) {
+        this.cullingMargin = cullingMargin;
+    }
+
+    // Быстрый режим SDF: cos(p/.2) берется из таблицы (качество - см. LutQualityReport)
+    public void setCosineTable(CosineTable cosineTable) {
+        this.cosineTable = cosineTable;
+    }
+
+    public CosineTable getCosineTable() {
+        return cosineTable;
+    }
+
+    // Упорядоченный дизеринг при квантовании в байты (см. BulkQuantizer)
+    public void setDither(boolean dither) {
+        toneMapper = new ToneMapper(tanhScale, 1.00f, toneMapper.getMapping(), dither);
+    }
+
+    // true - каждый пиксель считается эталонным rayMarch (медленно, для сверки)
+    public void setReference(boolean reference) {
+        this.reference = reference;
+    }
+
+    public boolean isReference() {
+        return reference;
+    }
+
+    // Uniform r для RaySetup.SHADER (используются r.x и r.y)
+    public void setR(float x, float y, float z) {
+        r.set(x, y, z);
+    }
+
+    public void setMaxSteps(int maxSteps) {
+        if (maxSteps < 1) {
+            throw new IllegalArgumentException("maxSteps must be >= 1: " + maxSteps);
+        }
+        this.maxSteps = maxSteps;
+    }
+
+    public int getMaxSteps() {
+        return maxSteps;
+    }
+
+    public long getStepCount() {
+        return stepCount.sum();
+    }
+
+    public void resetStepCount() {
+        stepCount.reset();
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    // Нормализация координат пикселя (в т.ч. дробных - субпиксельные сэмплы)
+    Vec3 normalizePixelCoords(float x, float y) {
+        return normalizePixelCoordsInto(x, y, new Vec3());
+    }
+
+    // Нормализация без аллокаций - результат в dst
+    Vec3 normalizePixelCoordsInto(float x, float y, Vec3 dst) {
+        if (raySetup == RaySetup.CENTERED) {
+            // Преобразуем экранные координаты в [-1, 1]
+            dst.set(2.0f * x / width - 1.0f, 2.0f * y / height - 1.0f, 0.0f);
+        } else {
+            // FC.rgb * 2.0 - r.xyy, FC.rgb = vec3(uv, 0)
+            float u = x / width;
+            float v = y / height;
+            dst.set(u * 2.0f - r.x, v * 2.0f - r.y, 0 * 2.0f - r.y);
+        }
+        return dst.normalizeInto(dst);
+    }
+
+    // Эталонный raymarching цикл, построчно повторяющий шейдер
+    Vec4 rayMarch(Vec3 rayDir, float time) {
+        return rayMarch(rayDir, time, null);
+    }
+
+    // aov != null - туда же пишутся глубина и число шагов луча
+    Vec4 rayMarch(Vec3 rayDir, float time, RaymarchScratch aov) {
+        return rayMarch(rayDir, time, aov, boxCulling);
+    }
+
+    // culling - отсекать ли луч по коробке (проход AOV отсечение не использует)
+    private Vec4 rayMarch(Vec3 rayDir, float time, RaymarchScratch aov, boolean culling) {
+        float z = 0.0f; // начальная глубина
+        Vec4 o = new Vec4(0, 0, 0, 0); // накопленный цвет
+
+        // Предпроход: луч мимо раздутой коробки дает вклад меньше уровня квантования,
+        // а после выхода из нее шаги уже ничего не добавляют - дальше не маршируем
+        float tExit = Float.POSITIVE_INFINITY;
+        if (culling) {
+            float angle = time / 4.0f;
+            RaymarchScratch s = aov != null ? aov : RaymarchScratch.get();
+            if (!BoxCulling.intersect(rayDir, (float)Math.cos(angle), (float)Math.sin(angle), cullingMargin, s)) {
+                if (aov != null) {
+                    aov.depth = MAX_DISTANCE;
+                    aov.steps = 0;
+                }
+                return o;
+            }
+            tExit = s.tExit;
+        }
+        int steps = 0;
+
+        // ТОЧНО как в шейдере: for(float i,z,d,s,c;i++<5e1;)
+        for (int i = 0; i < maxSteps; i++) {
+            steps++;
+            // vec3 p = z * normalize(FC.rgb*2.-r.xyy);
+            Vec3 p = rayDir.multiply(z);
+
+            // p.z += 8.
+            p.z += 8.0f;
+
+            // p.xz *= mat2(cos(t/4.+vec4(0,33,11,0)))
+            // mat2(cos(angle), -sin(angle), sin(angle), cos(angle))
+            Mat2 rotation = Mat2.rotation(time / 4.0f);
+            Vec2 xz = rotation.multiply(new Vec2(p.x, p.z));
+            p.x = xz.x;
+            p.z = xz.y;
+
+            // z += d = max(length(cos(p/.2))/8., length(clamp(p,-3.,3.)-p))
+            Vec3 clamped = new Vec3(
+                    Math.max(-3.0f, Math.min(3.0f, p.x)),
+                    Math.max(-3.0f, Math.min(3.0f, p.y)),
+                    Math.max(-3.0f, Math.min(3.0f, p.z))
+            );
+            float d2 = clamped.subtract(p).length();
+
+            // Далеко от коробки d1 <= sqrt(3)/8 < d2 и косинусы не нужны - результат тот же
+            float d;
+            if (d2 > BoxCulling.MAX_D1) {
+                d = d2;
+            } else {
+                float d1 = p.divide(0.2f).cos().length() / 8.0f;
+                d = Math.max(d1, d2);
+            }
+            z += d;
+
+            // Попадание в поверхность - цвет этого шага уже не добавляется
+            if (earlyExit == EarlyExit.SURFACE_HIT && (d < MIN_DISTANCE || z > MAX_DISTANCE)) break;
+
+            // o += (cos(dot(cos(p), sin(p/.6).yzx) + t + vec4(0,1,2,3)) + 1.1) / d / z
+            float dotVal = p.cos().dot(p.divide(0.6f).sin().yzx());
+            Vec4 phases = new Vec4(
+                    dotVal + time,
+                    dotVal + time + 1.0f,
+                    dotVal + time + 2.0f,
+                    dotVal + time + 3.0f
+            );
+            Vec4 colorAdd = phases.cos().add(1.1f);
+
+            if (d > 0.0001f && z > 0.0001f) {
+                o = o.add(colorAdd.divide(d * z));
+            }
+
+            // Ранний выход если ушли далеко
+            if (z > MAX_DISTANCE) break;
+
+            // Луч вышел из раздутой коробки - дальше вклад пренебрежимо мал
+            if (z > tExit) break;
+        }
+
+        stepCount.add(steps);
+        if (aov != null) {
+            aov.depth = z;
+            aov.steps = steps;
+        }
+        return o;
+    }
+
+    // Тот же цикл на временных векторах потока (RaymarchScratch) - без аллокаций.
+    // Результат пишется в dst, арифметика совпадает с rayMarch бит в бит.
+    Vec4 rayMarchInto(Vec3 rayDir, float time, RaymarchScratch s, Vec4 dst) {
+        return rayMarchInto(rayDir, time, s, dst, boxCulling, null, null);
+    }
+
+    // snapshots != null - марш идет до последнего (наибольшего) из них, и цвет после
+    // snapshots[j] шагов пишется в out[j * 4..j * 4 + 3]
+    private Vec4 rayMarchInto(Vec3 rayDir, float time, RaymarchScratch s, Vec4 dst, boolean culling,
+                              int[] snapshots, float[] out) {
+        float z = 0.0f;
+        Vec4 o = dst.set(0, 0, 0, 0);
+        int limit = snapshots != null ? snapshots[snapshots.length - 1] : maxSteps;
+        int snapshot = 0;
+
+        // Угол один на весь кадр - cos/sin берутся из кеша
+        RotationCache.Rotation rotation = RotationCache.get(time / 4.0f);
+        float tExit = Float.POSITIVE_INFINITY;
+        if (culling) {
+            if (!BoxCulling.intersect(rayDir, rotation.cos, rotation.sin, cullingMargin, s)) {
+                // Луч мимо коробки: шагов не было, считаем его ушедшим на дальность
+                s.depth = MAX_DISTANCE;
+                s.steps = 0;
+                storeSnapshots(o, snapshots, 0, out);
+                return o;
+            }
+            tExit = s.tExit;
+        }
+        boolean surfaceHit = earlyExit == EarlyExit.SURFACE_HIT;
+        int steps = 0;
+
+        for (int i = 0; i < limit; i++) {
+            steps++;
+            Vec3 p = rayDir.multiplyInto(z, s.p);
+            p.z += 8.0f;
+
+            // p.xz *= mat2(...) - поворот на месте без временного Vec2
+            p.rotateXZ(rotation.sin, rotation.cos);
+
+            float d2 = p.clampInto(-3.0f, 3.0f, s.tmp).subtractSelf(p).length();
+            float d;
+            if (d2 > BoxCulling.MAX_D1) {
+                d = d2;
+            } else if (cosineTable != null) {
+                float cx = cosineTable.cos(p.x / 0.2f);
+                float cy = cosineTable.cos(p.y / 0.2f);
+                float cz = cosineTable.cos(p.z / 0.2f);
+                float d1 = (float)Math.sqrt(cx * cx + cy * cy + cz * cz) / 8.0f;
+                d = Math.max(d1, d2);
+            } else {
+                float d1 = p.divideInto(0.2f, s.tmp).cosSelf().length() / 8.0f;
+                d = Math.max(d1, d2);
+            }
+            z += d;
+
+            if (surfaceHit && (d < MIN_DISTANCE || z > MAX_DISTANCE)) break;
+
+            Vec3 cosP = p.cosInto(s.cosP);
+            Vec3 sinP = p.divideInto(0.6f, s.tmp).sinSelf().yzxInto(s.sinP);
+            float dotVal = cosP.dot(sinP);
+
+            Vec4 colorAdd = s.phases.set(
+                    dotVal + time,
+                    dotVal + time + 1.0f,
+                    dotVal + time + 2.0f,
+                    dotVal + time + 3.0f
+            ).cosSelf().addSelf(1.1f);
+
+            if (d > 0.0001f && z > 0.0001f) {
+                o.addSelf(colorAdd.divideSelf(d * z));
+            }
+
+            if (snapshots != null && steps == snapshots[snapshot]) {
+                storeColor(o, out, snapshot++);
+            }
+
+            if (z > MAX_DISTANCE) break;
+            if (z > tExit) break;
+        }
+
+        stepCount.add(steps);
+        s.depth = z;
+        s.steps = steps;
+        // После раннего выхода более длинные марши закончились бы там же
+        storeSnapshots(o, snapshots, snapshot, out);
+        return o;
+    }
+
+    private static void storeSnapshots(Vec4 o, int[] snapshots, int from, float[] out) {
+        if (snapshots != null) {
+            for (int j = from; j < snapshots.length; j++) {
+                storeColor(o, out, j);
+            }
+        }
+    }
+
+    // Луч через (x, y) сразу для нескольких чисел шагов: марш с меньшим числом шагов - префикс
+    // длинного, поэтому он проходится один раз. steps - строго по возрастанию; цвет после
+    // steps[j] шагов пишется в dst[j * 4..] и совпадает с tracePixel при setMaxSteps(steps[j])
+    void tracePixelSteps(float x, float y, float time, int[] steps, float[] dst, RaymarchScratch scratch) {
+        Vec3 rayDir = normalizePixelCoordsInto(x, y, scratch.rayDir);
+        rayMarchInto(rayDir, time, scratch, scratch.color, boxCulling, steps, dst);
+    }
+
+    // Луч через точку (x, y) экрана на временных векторах потока.
+    // Возвращает scratch.color - значение действительно до следующего вызова.
+    // Глубина и число шагов луча остаются в scratch.depth и scratch.steps.
+    Vec4 tracePixel(float x, float y, float time, RaymarchScratch scratch) {
+        return tracePixel(x, y, time, scratch, boxCulling);
+    }
+
+    private Vec4 tracePixel(float x, float y, float time, RaymarchScratch scratch, boolean culling) {
+        Vec3 rayDir = normalizePixelCoordsInto(x, y, scratch.rayDir);
+        if (reference) {
+            return scratch.color.set(rayMarch(rayDir, time, scratch, culling));
+        }
+        return rayMarchInto(rayDir, time, scratch, scratch.color, culling, null, null);
+    }
+
+    // Основной метод рендеринга, строки параллельно
+    @Override
+    public byte[] renderFrame(float time) {
+        byte[] pixels = new byte[width * height * 3];
+        IntStream.range(0, height).parallel().forEach(y -> renderRows(time, y, 1, pixels, y * width * 3));
+        return pixels;
+    }
+
+    // Рендер полосы строк y0..y0+rows-1 в dst начиная с offset (width * 3 байт на строку).
+    // Выполняется в текущем потоке - параллелизм остается на вызывающем.
+    public void renderRows(float time, int y0, int rows, byte[] dst, int offset) {
+        renderRegion(time, 0, y0, width, rows, dst, offset, width * 3);
+    }
+
+    // Пакетный рендер K кадров за один проход по пикселям: направление луча
+    // считается один раз и используется для всех значений времени, строка кадра
+    // остается в кеше. Каждый кадр совпадает с renderFrame(times[k]) байт в байт.
+    public byte[][] renderFrames(float[] times) {
+        byte[][] frames = new byte[times.length][width * height * 3];
+        // Прогреваем кеш поворотов, чтобы все потоки брали готовые cos/sin
+        for (float time : times) {
+            RotationCache.get(time / 4.0f);
+        }
+
+        IntStream.range(0, height).parallel().forEach(y -> {
+            RaymarchScratch scratch = RaymarchScratch.get();
+            float[][] rows = scratch.rows(times.length, width);
+            for (int x = 0; x < width; x++) {
+                Vec3 rayDir = normalizePixelCoordsInto(x, y, scratch.rayDir);
+                for (int k = 0; k < times.length; k++) {
+                    Vec4 color = reference
+                            ? scratch.color.set(rayMarch(rayDir, times[k]))
+                            : rayMarchInto(rayDir, times[k], scratch, scratch.color);
+                    storeColor(color, rows[k], x);
+                }
+            }
+            for (int k = 0; k < times.length; k++) {
+                toneMapper.mapRow(rows[k], width, frames[k], y * width * 3, 0, y);
+            }
+        });
+
+        return frames;
+    }
+
+    // Рендер прямоугольника w x h с угла (x0, y0) кадра: пиксель (x, y) области
+    // пишется в dst по смещению y * stride + x * 3. Нормализация та же, что у полного
+    // кадра, поэтому вырезка совпадает с кадром пиксель в пиксель.
+    @Override
+    public void renderRegion(float time, int x0, int y0, int w, int h, byte[] dst, int stride) {
+        renderRegion(time, x0, y0, w, h, dst, 0, stride);
+    }
+
+    // То же с начальным смещением offset в dst. Выполняется в текущем потоке -
+    // это строительный блок для строк, тайлов и прогрессивного рендера.
+    public void renderRegion(float time, int x0, int y0, int w, int h, byte[] dst, int offset, int stride) {
+        if (x0 < 0 || y0 < 0 || w < 0 || h < 0 || x0 + w > width || y0 + h > height) {
+            throw new IllegalArgumentException("Region " + w + "x" + h + " at (" + x0 + ", " + y0
+                    + ") is outside the " + width + "x" + height + " frame");
+        }
+        if (h > 0 && (stride < w * 3 || offset < 0 || offset + (h - 1) * stride + w * 3 > dst.length)) {
+            throw new IllegalArgumentException("Buffer of " + dst.length + " bytes with offset " + offset
+                    + " and stride " + stride + " does not fit a " + w + "x" + h + " region");
+        }
+        RaymarchScratch scratch = RaymarchScratch.get();
+        float[] row = scratch.row(w);
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                storeColor(tracePixel(x0 + x, y0 + y, time, scratch), row, x);
+            }
+            toneMapper.mapRow(row, w, dst, offset + y * stride, x0, y0 + y);
+        }
+    }
+
+    // Кадр вместе с AOV за один проход: цвет, глубина и число шагов каждого луча.
+    // Заполняются только включенные буферы aov, остальное - как в renderFrame(time).
+    // Отсечение по коробке здесь не применяется: отсеченный луч не дошел бы до своей
+    // глубины и шагов, поэтому цвет совпадает с renderFrame без отсечения
+    public byte[] renderFrame(float time, AovBuffers aov) {
+        if (aov.getWidth() != width || aov.getHeight() != height) {
+            throw new IllegalArgumentException("AOV buffers are " + aov.getWidth() + "x" + aov.getHeight()
+                    + ", frame is " + width + "x" + height);
+        }
+        byte[] pixels = new byte[width * height * 3];
+        float[] depth = aov.getDepth();
+        int[] steps = aov.getSteps();
+        IntStream.range(0, height).parallel().forEach(y -> {
+            RaymarchScratch scratch = RaymarchScratch.get();
+            float[] row = scratch.row(width);
+            for (int x = 0; x < width; x++) {
+                int i = y * width + x;
+                storeColor(tracePixel(x, y, time, scratch, false), row, x);
+                if (depth != null) {
+                    depth[i] = scratch.depth;
+                }
+                if (steps != null) {
+                    steps[i] = scratch.steps;
+                }
+            }
+            toneMapper.mapRow(row, width, pixels, y * width * 3, 0, y);
+        });
+        return pixels;
+    }
+
+    // Прогрев JIT: rounds маленьких рендеров центральной области 64x36, чтобы к первому
+    // настоящему кадру rayMarchInto и mapRow уже были скомпилированы C2
+    public void warmUp(int rounds) {
+        int w = Math.min(width, 64);
+        int h = Math.min(height, 36);
+        byte[] dst = new byte[w * h * 3];
+        for (int i = 0; i < rounds; i++) {
+            renderRegion(i * 0.1f, (width - w) / 2, (height - h) / 2, w, h, dst, w * 3);
+        }
+    }
+
+    // Рендер прямо в кадр вне кучи (в т.ч. отображенный в PPM-файл), строки параллельно
+    @Override
+    public void renderFrame(float time, RgbFramebuffer dst) {
+        IntStream.range(0, height).parallel().forEach(y -> {
+            byte[] row = RaymarchScratch.get().rgbRow(width);
+            renderRows(time, y, 1, row, 0);
+            dst.setRow(y, row, 0);
+        });
+    }
+
+    // HDR-рендер: сырой o без tanh в float-буфер, строки считаются параллельно.
+    // Тонмаппинг потом делается отдельно через toneMapper().
+    public HdrFramebuffer renderHdr(float time) {
+        HdrFramebuffer fb = new HdrFramebuffer(width, height);
+        renderHdr(time, fb);
+        return fb;
+    }
+
+    public void renderHdr(float time, HdrFramebuffer dst) {
+        IntStream.range(0, height).parallel().forEach(y -> {
+            RaymarchScratch scratch = RaymarchScratch.get();
+            for (int x = 0; x < width; x++) {
+                Vec4 color = tracePixel(x, y, time, scratch);
+                dst.set(x, y, color.x, color.y, color.z, color.w);
+            }
+        });
+    }
+
+    // HDR-рендер в упакованный 16-битный кадр (half или фиксированная точка) - вдвое меньше памяти
+    public void renderHdr(float time, PackedHdrFramebuffer dst) {
+        IntStream.range(0, height).parallel().forEach(y -> {
+            RaymarchScratch scratch = RaymarchScratch.get();
+            float[] row = scratch.row(width);
+            for (int x = 0; x < width; x++) {
+                storeColor(tracePixel(x, y, time, scratch), row, x);
+            }
+            dst.setRow(y, row);
+        });
+    }
+
+    // Тонмаппер с параметрами этого рендерера (масштаб tanh, отображение цвета, boost = 1)
+    public ToneMapper toneMapper() {
+        return toneMapper;
+    }
+
+    // Накопленный цвет пикселя x в строку RGBA; tanh и квантование - потом, всей строкой
+    // через toneMapper.mapRow
+    private static void storeColor(Vec4 color, float[] row, int x) {
+        int i = x * 4;
+        row[i] = color.x;
+        row[i + 1] = color.y;
+        row[i + 2] = color.z;
+        row[i + 3] = color.w;
+    }
+
+    // Яркость после tanh - используется для оценки дисперсии при адаптивном сэмплинге
+    float toneMappedLuminance(Vec4 color) {
+        Vec4 c = color.divide(tanhScale).tanh();
+        return 0.2126f * c.x + 0.7152f * c.y + 0.0722f * c.z;
+    }
+}
@@ -0,0 +1,61 @@
+package ru.ash;
+
+import ru.ash.vectors.Vec3;
+import ru.ash.vectors.Vec4;
+
+// Фиксированный набор временных векторов для одного потока рендера.
+// Горячий цикл raymarching работает только с ними и ничего не аллоцирует.
+final class RaymarchScratch {
+    final Vec3 rayDir = new Vec3();
+    final Vec3 p = new Vec3();
+    final Vec3 tmp = new Vec3();
+    final Vec3 cosP = new Vec3();
+    final Vec3 sinP = new Vec3();
+    final Vec4 phases = new Vec4();
+    final Vec4 color = new Vec4();
+
+    // Глубина (последний z) и число шагов последнего луча - для AOV
+    float depth;
+    int steps;
+
+    // Диапазон глубин луча внутри раздутой коробки - результат BoxCulling.intersect
+    float tEnter;
+    float tExit;
+
+    // Строка сырого RGBA перед тонмаппингом; растет под самую широкую область
+    private float[] row = new float[0];
+
+    float[] row(int pixels) {
+        if (row.length < pixels * 4) {
+            row = new float[pixels * 4];
+        }
+        return row;
+    }
+
+    // Строка RGB-байт для кадров вне кучи: строка сначала собирается здесь, потом копируется
+    private byte[] rgb = new byte[0];
+
+    byte[] rgbRow(int pixels) {
+        if (rgb.length < pixels * 3) {
+            rgb = new byte[pixels * 3];
+        }
+        return rgb;
+    }
+
+    // count строк для пакетного рендера (строка на кадр); растут так же
+    private float[][] rows = new float[0][];
+
+    float[][] rows(int count, int pixels) {
+        if (rows.length < count || rows[0].length < pixels * 4) {
+            rows = new float[Math.max(count, rows.length)][pixels * 4];
+        }
+        return rows;
+    }
+
+    // Scratch на поток: пулы ForkJoin и рабочие потоки переиспользуют свой экземпляр
+    private static final ThreadLocal<RaymarchScratch> LOCAL = ThreadLocal.withInitial(RaymarchScratch::new);
+
+    static RaymarchScratch get() {
+        return LOCAL.get();
+    }
+}
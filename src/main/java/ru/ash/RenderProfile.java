@@ -0,0 +1,76 @@
+package ru.ash;
+
+import ru.ash.math.CosineTable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+// Настройки рендера под конкретную машину: размер тайла, число потоков, ядро SDF
+// (точный Math.cos или таблица lutSize) и отсечение по коробке.
+// Подбирается AutoTuner и сохраняется в properties-файл, App читает его при старте.
+// Ядро и отсечение проверяются по PSNR на картинке ExactRaymarchingRenderer и годятся только для нее.
+public record RenderProfile(int tileSize, int threads, int lutSize, boolean cull) {
+    public static final String DEFAULT_FILE = "render-profile.properties";
+
+    public RenderProfile {
+        if (tileSize < 0 || threads < 1 || lutSize < 0) {
+            throw new IllegalArgumentException("Invalid profile: tile=" + tileSize
+                    + " threads=" + threads + " lut=" + lutSize);
+        }
+    }
+
+    // Без профиля: построчный рендер на всех ядрах, точная математика
+    public static RenderProfile defaults() {
+        return new RenderProfile(0, Runtime.getRuntime().availableProcessors(), 0, false);
+    }
+
+    // Профиль из файла или значения по умолчанию, если файла нет
+    public static RenderProfile load(Path path) throws IOException {
+        RenderProfile defaults = defaults();
+        if (!Files.exists(path)) {
+            return defaults;
+        }
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(path)) {
+            props.load(in);
+        }
+        try {
+            return new RenderProfile(
+                    Integer.parseInt(props.getProperty("tile", String.valueOf(defaults.tileSize))),
+                    Integer.parseInt(props.getProperty("threads", String.valueOf(defaults.threads))),
+                    Integer.parseInt(props.getProperty("lut", String.valueOf(defaults.lutSize))),
+                    Boolean.parseBoolean(props.getProperty("cull", String.valueOf(defaults.cull))));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid render profile " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    public void save(Path path, String comment) throws IOException {
+        Properties props = new Properties();
+        props.setProperty("tile", String.valueOf(tileSize));
+        props.setProperty("threads", String.valueOf(threads));
+        props.setProperty("lut", String.valueOf(lutSize));
+        props.setProperty("cull", String.valueOf(cull));
+        try (OutputStream out = Files.newOutputStream(path)) {
+            props.store(out, comment);
+        }
+    }
+
+    // Ядро и отсечение - настройки самого движка; тайлы и потоки использует вызывающий.
+    // Другому рендереру они не передаются: точность проверялась только на ExactRaymarchingRenderer
+    public void applyTo(RaymarchEngine renderer) {
+        boolean tuned = renderer instanceof ExactRaymarchingRenderer;
+        renderer.setBoxCulling(tuned && cull);
+        renderer.setCosineTable(tuned && lutSize > 0 ? new CosineTable(lutSize, CosineTable.Interpolation.CUBIC) : null);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("tile=%d threads=%d kernel=%s cull=%b",
+                tileSize, threads, lutSize > 0 ? "lut" + lutSize : "exact", cull);
+    }
+}
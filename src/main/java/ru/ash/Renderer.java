@@ -0,0 +1,17 @@
+package ru.ash;
+
+import ru.ash.framebuffer.RgbFramebuffer;
+
+// Общий интерфейс рендереров кадра: RGB-байты построчно сверху вниз, 3 байта на пиксель
+public interface Renderer {
+    int getWidth();
+
+    int getHeight();
+
+    byte[] renderFrame(float time);
+
+    void renderFrame(float time, RgbFramebuffer dst);
+
+    // Прямоугольник w x h с угла (x0, y0): пиксель (x, y) области - в dst[y * stride + x * 3]
+    void renderRegion(float time, int x0, int y0, int w, int h, byte[] dst, int stride);
+}
@@ -0,0 +1,74 @@
+package ru.ash;
+
+// Схемы расположения субпиксельных сэмплов.
+// Смещения возвращаются в диапазоне [-0.5, 0.5) относительно угла пикселя,
+// так что GRID с одним сэмплом дает ровно ту же точку, что и обычный renderFrame.
+public enum SamplePattern {
+    // Регулярная сетка sx * sy внутри пикселя
+    GRID,
+    // Та же сетка, но каждый сэмпл случайно смещен внутри своей ячейки (jittered)
+    STRATIFIED,
+    // Последовательность Холтона по основаниям 2 и 3 со сдвигом для каждого пикселя
+    HALTON;
+
+    // Заполняет dst парами (dx, dy) для сэмплов first..first+count-1 из total.
+    // Сид зависит только от координат пикселя, поэтому картинка детерминирована.
+    public void offsets(int px, int py, int first, int count, int total, float[] dst) {
+        int sx = (int)Math.ceil(Math.sqrt(total));
+        int sy = (total + sx - 1) / sx;
+        int seed = hash(px * 73856093 ^ py * 19349663);
+
+        for (int i = 0; i < count; i++) {
+            int k = first + i;
+            float dx;
+            float dy;
+            switch (this) {
+                case GRID:
+                    dx = ((k % sx) + 0.5f) / sx;
+                    dy = ((k / sx) + 0.5f) / sy;
+                    break;
+                case STRATIFIED:
+                    dx = ((k % sx) + random(seed, 2 * k)) / sx;
+                    dy = ((k / sx) + random(seed, 2 * k + 1)) / sy;
+                    break;
+                default:
+                    // Сдвиг Крэнли-Паттерсона убирает одинаковый узор в соседних пикселях
+                    dx = fract(radicalInverse(k + 1, 2) + random(seed, 0));
+                    dy = fract(radicalInverse(k + 1, 3) + random(seed, 1));
+                    break;
+            }
+            dst[2 * i] = dx - 0.5f;
+            dst[2 * i + 1] = dy - 0.5f;
+        }
+    }
+
+    static float radicalInverse(int index, int base) {
+        float inv = 1.0f / base;
+        float f = inv;
+        float result = 0.0f;
+        while (index > 0) {
+            result += f * (index % base);
+            index /= base;
+            f *= inv;
+        }
+        return result;
+    }
+
+    // Псевдослучайное число в [0, 1) из сида и номера
+    static float random(int seed, int n) {
+        return (hash(seed + n * 0x9E3779B9) >>> 8) * (1.0f / (1 << 24));
+    }
+
+    static int hash(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static float fract(float v) {
+        return v - (float)Math.floor(v);
+    }
+}
@@ -0,0 +1,34 @@
+package ru.ash;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Рендер одного большого кадра (например, для печати) с постоянным расходом памяти:
+// java ru.ash.StillTool 32768 18432 1.3 poster.ppm [bandHeight]
+public class StillTool {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.err.println("Usage: StillTool <width> <height> <time> <output.ppm> [bandHeight]");
+            System.exit(1);
+        }
+        int w = Integer.parseInt(args[0]);
+        int h = Integer.parseInt(args[1]);
+        float time = Float.parseFloat(args[2]);
+        int bandHeight = args.length > 4 ? Integer.parseInt(args[4]) : 16;
+
+        ExactRaymarchingRenderer renderer = new ExactRaymarchingRenderer(w, h);
+        renderer.setBoxCulling(Boolean.getBoolean("cull"));
+        StreamingRenderer streaming = new StreamingRenderer(renderer, bandHeight,
+                Runtime.getRuntime().availableProcessors());
+
+        System.out.println("Streaming " + w + "x" + h + " (time=" + time + ") to " + args[3] + "...");
+        long startTime = System.currentTimeMillis();
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(args[3]), 1 << 16)) {
+            streaming.render(time, out);
+        }
+        System.out.println("done in " + (System.currentTimeMillis() - startTime) + "ms");
+    }
+}
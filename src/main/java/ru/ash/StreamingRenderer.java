@@ -0,0 +1,113 @@
+package ru.ash;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Потоковый рендер больших кадров полосами строк.
+// Сначала пишется заголовок PPM, затем полосы строго по порядку.
+// Полосы считаются параллельно, но в полете не больше window штук,
+// поэтому память зависит только от ширины и высоты полосы, а не от высоты кадра.
+public class StreamingRenderer {
+    private final RaymarchEngine renderer;
+    private final int bandHeight;
+    private final int threads;
+    private final int window;
+
+    public StreamingRenderer(RaymarchEngine renderer, int bandHeight, int threads) {
+        if (bandHeight < 1 || threads < 1) {
+            throw new IllegalArgumentException("bandHeight and threads must be >= 1");
+        }
+        this.renderer = renderer;
+        this.bandHeight = bandHeight;
+        this.threads = threads;
+        // Небольшой запас, чтобы потоки не простаивали, пока пишется очередная полоса
+        this.window = threads * 2;
+    }
+
+    public StreamingRenderer(RaymarchEngine renderer) {
+        this(renderer, 16, Runtime.getRuntime().availableProcessors());
+    }
+
+    public void render(float time, OutputStream out) throws IOException {
+        WritableByteChannel channel = Channels.newChannel(out);
+        render(time, channel);
+        out.flush();
+    }
+
+    public void render(float time, WritableByteChannel out) throws IOException {
+        int width = renderer.getWidth();
+        int height = renderer.getHeight();
+
+        String header = String.format("P6\n%d %d\n255\n", width, height);
+        writeFully(out, ByteBuffer.wrap(header.getBytes(StandardCharsets.US_ASCII)));
+
+        // Переиспользуемые буферы полос - новых аллокаций по ходу кадра нет
+        BlockingQueue<byte[]> buffers = new ArrayBlockingQueue<>(window);
+        for (int i = 0; i < window; i++) {
+            buffers.add(new byte[bandHeight * width * 3]);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "band-renderer");
+            t.setDaemon(true);
+            return t;
+        });
+        ArrayDeque<Future<byte[]>> inFlight = new ArrayDeque<>();
+        try {
+            int nextBand = 0;
+            int bands = (height + bandHeight - 1) / bandHeight;
+            for (int emitted = 0; emitted < bands; emitted++) {
+                // Подкидываем работу, пока есть свободные буферы
+                while (nextBand < bands && inFlight.size() < window) {
+                    int y0 = nextBand * bandHeight;
+                    int rows = Math.min(bandHeight, height - y0);
+                    byte[] band = buffers.poll();
+                    inFlight.add(pool.submit(() -> {
+                        renderer.renderRows(time, y0, rows, band, 0);
+                        return band;
+                    }));
+                    nextBand++;
+                }
+
+                // Полосы выдаются строго по порядку
+                byte[] band = await(inFlight.poll());
+                int rows = Math.min(bandHeight, height - emitted * bandHeight);
+                writeFully(out, ByteBuffer.wrap(band, 0, rows * width * 3));
+                buffers.add(band);
+            }
+        } finally {
+            for (Future<byte[]> f : inFlight) {
+                f.cancel(true);
+            }
+            pool.shutdownNow();
+        }
+    }
+
+    private static byte[] await(Future<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Rendering interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Band rendering failed", e.getCause());
+        }
+    }
+
+    private static void writeFully(WritableByteChannel out, ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            out.write(data);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package ru.ash;
+
+import ru.ash.framebuffer.HdrFramebuffer;
+import ru.ash.vectors.Vec4;
+
+import java.util.stream.IntStream;
+
+// Суперсэмплинг (SSAA) поверх RaymarchEngine.
+// Каждый пиксель трассируется N раз со смещениями из SamplePattern,
+// сырые значения o накапливаются во float-буфере (HdrFramebuffer) и только потом проходят tanh.
+// Строки считаются параллельно - стоимость пикселя растет в N раз.
+public class SupersamplingRenderer {
+    private final RaymarchEngine renderer;
+    private final int samples;
+    private final SamplePattern pattern;
+
+    public SupersamplingRenderer(RaymarchEngine renderer, int samples, SamplePattern pattern) {
+        if (samples < 1) {
+            throw new IllegalArgumentException("samples must be >= 1: " + samples);
+        }
+        this.renderer = renderer;
+        this.samples = samples;
+        this.pattern = pattern;
+    }
+
+    public byte[] renderFrame(float time) {
+        return renderer.toneMapper().apply(accumulate(time));
+    }
+
+    // Сырой накопленный цвет RGBA на пиксель (среднее по сэмплам, до tanh)
+    public HdrFramebuffer accumulate(float time) {
+        HdrFramebuffer accum = new HdrFramebuffer(renderer.getWidth(), renderer.getHeight());
+        accumulate(time, accum);
+        return accum;
+    }
+
+    public void accumulate(float time, HdrFramebuffer accum) {
+        int width = renderer.getWidth();
+        int height = renderer.getHeight();
+
+        IntStream.range(0, height).parallel().forEach(y -> {
+            float[] row = new float[width * HdrFramebuffer.CHANNELS];
+            float[] offsets = new float[samples * 2];
+            Vec4 sum = new Vec4();
+            for (int x = 0; x < width; x++) {
+                pattern.offsets(x, y, 0, samples, samples, offsets);
+                sum.x = sum.y = sum.z = sum.w = 0.0f;
+                for (int s = 0; s < samples; s++) {
+                    addSample(sum, x + offsets[2 * s], y + offsets[2 * s + 1], time);
+                }
+                store(row, x * HdrFramebuffer.CHANNELS, sum, samples);
+            }
+            accum.setRow(y, row);
+        });
+    }
+
+    // Адаптивный вариант: сначала samples сэмплов на пиксель по своей раскладке из samples
+    // (нерефайненный пиксель совпадает с обычным renderFrame), затем пиксели, где дисперсия
+    // яркости после tanh выше порога, пересчитываются по раскладке из maxSamples.
+    // У GRID/STRATIFIED первые samples точек раскладки из maxSamples - верхние ряды ячеек,
+    // поэтому базовые сэмплы туда не подмешиваются. У HALTON точки от общего числа не зависят,
+    // и базовые сэмплы - просто начало последовательности: добираются только оставшиеся.
+    public byte[] renderFrameAdaptive(float time, int maxSamples, float varianceThreshold) {
+        if (maxSamples < samples) {
+            throw new IllegalArgumentException("maxSamples must be >= samples: " + maxSamples);
+        }
+        int width = renderer.getWidth();
+        int height = renderer.getHeight();
+        HdrFramebuffer accum = new HdrFramebuffer(width, height);
+        boolean progressive = pattern == SamplePattern.HALTON;
+
+        IntStream.range(0, height).parallel().forEach(y -> {
+            float[] row = new float[width * HdrFramebuffer.CHANNELS];
+            float[] offsets = new float[maxSamples * 2];
+            Vec4 sum = new Vec4();
+            Vec4 sample = new Vec4();
+            for (int x = 0; x < width; x++) {
+                pattern.offsets(x, y, 0, samples, samples, offsets);
+                sum.x = sum.y = sum.z = sum.w = 0.0f;
+
+                // Алгоритм Уэлфорда для дисперсии яркости
+                float mean = 0.0f;
+                float m2 = 0.0f;
+                for (int s = 0; s < samples; s++) {
+                    sample.x = sample.y = sample.z = sample.w = 0.0f;
+                    addSample(sample, x + offsets[2 * s], y + offsets[2 * s + 1], time);
+                    add(sum, sample);
+
+                    float lum = renderer.toneMappedLuminance(sample);
+                    float delta = lum - mean;
+                    mean += delta / (s + 1);
+                    m2 += delta * (lum - mean);
+                }
+
+                int count = samples;
+                float variance = samples > 1 ? m2 / (samples - 1) : Float.POSITIVE_INFINITY;
+                if (maxSamples > samples && variance > varianceThreshold) {
+                    int first = progressive ? samples : 0;
+                    if (!progressive) {
+                        sum.x = sum.y = sum.z = sum.w = 0.0f;
+                    }
+                    pattern.offsets(x, y, first, maxSamples - first, maxSamples, offsets);
+                    for (int s = 0; s < maxSamples - first; s++) {
+                        addSample(sum, x + offsets[2 * s], y + offsets[2 * s + 1], time);
+                    }
+                    count = maxSamples;
+                }
+                store(row, x * HdrFramebuffer.CHANNELS, sum, count);
+            }
+            accum.setRow(y, row);
+        });
+
+        return renderer.toneMapper().apply(accum);
+    }
+
+    private void addSample(Vec4 sum, float x, float y, float time) {
+        add(sum, renderer.tracePixel(x, y, time, RaymarchScratch.get()));
+    }
+
+    private static void add(Vec4 sum, Vec4 c) {
+        sum.x += c.x;
+        sum.y += c.y;
+        sum.z += c.z;
+        sum.w += c.w;
+    }
+
+    private static void store(float[] accum, int offset, Vec4 sum, int count) {
+        float inv = 1.0f / count;
+        accum[offset] = sum.x * inv;
+        accum[offset + 1] = sum.y * inv;
+        accum[offset + 2] = sum.z * inv;
+        accum[offset + 3] = sum.w * inv;
+    }
+}
@@ -0,0 +1,164 @@
+package ru.ash;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Тайловый планировщик кадра на пуле из threads воркеров.
+// Стоимость пикселя сильно различается: лучи в коробке проходят все 50 шагов,
+// остальные выходят рано. Тайлы упорядочиваются по времени в прошлом кадре
+// (самые дорогие - первыми), и каждый освободившийся воркер берет следующий тайл
+// из общего курсора (LPT): в конце кадра остаются только дешевые тайлы.
+// После каждого кадра доступна статистика занятости воркеров.
+public class TileScheduler implements AutoCloseable {
+    private final RaymarchEngine renderer;
+    private final ForkJoinPool pool;
+    private final int tileSize;
+    private final int tilesX;
+    private final int tilesY;
+    private final long[] lastCost;
+    private final int threads;
+    // Время работы по потокам за текущий кадр: каждый поток пишет только в свой счетчик
+    private final Map<Thread, long[]> busyNanos = new ConcurrentHashMap<>();
+    private FrameStats lastStats;
+
+    public TileScheduler(RaymarchEngine renderer, int tileSize, int threads) {
+        if (tileSize < 1 || threads < 1) {
+            throw new IllegalArgumentException("tileSize and threads must be >= 1");
+        }
+        this.renderer = renderer;
+        this.tileSize = tileSize;
+        this.pool = new ForkJoinPool(threads);
+        this.tilesX = (renderer.getWidth() + tileSize - 1) / tileSize;
+        this.tilesY = (renderer.getHeight() + tileSize - 1) / tileSize;
+        this.lastCost = new long[tilesX * tilesY];
+        this.threads = threads;
+    }
+
+    public byte[] renderFrame(float time) {
+        byte[] pixels = new byte[renderer.getWidth() * renderer.getHeight() * 3];
+        renderFrame(time, pixels);
+        return pixels;
+    }
+
+    public void renderFrame(float time, byte[] pixels) {
+        Integer[] order = new Integer[tilesX * tilesY];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        // Дорогие тайлы прошлого кадра - первыми; в первом кадре стоимости нулевые и порядок обычный
+        Arrays.sort(order, Comparator.comparingLong((Integer i) -> -lastCost[i]));
+        int[] tiles = new int[order.length];
+        for (int i = 0; i < tiles.length; i++) {
+            tiles[i] = order[i];
+        }
+
+        busyNanos.clear();
+        long start = System.nanoTime();
+        // Одна задача на воркер; кражи из деки не нужны - порядок задает курсор
+        AtomicInteger next = new AtomicInteger();
+        ForkJoinTask<?>[] workers = new ForkJoinTask<?>[threads];
+        for (int w = 0; w < threads; w++) {
+            workers[w] = pool.submit(() -> {
+                for (int k = next.getAndIncrement(); k < tiles.length; k = next.getAndIncrement()) {
+                    renderTile(time, tiles[k], pixels);
+                }
+            });
+        }
+        for (ForkJoinTask<?> worker : workers) {
+            worker.join();
+        }
+        long wall = System.nanoTime() - start;
+
+        // Потоки, которым не досталось ни одного тайла, считаются простаивавшими весь кадр
+        long[] busy = new long[Math.max(threads, busyNanos.size())];
+        int i = 0;
+        for (long[] b : busyNanos.values()) {
+            busy[i++] = b[0];
+        }
+        lastStats = new FrameStats(wall, busy, tiles.length);
+    }
+
+    private void renderTile(float time, int tile, byte[] pixels) {
+        int width = renderer.getWidth();
+        int x0 = (tile % tilesX) * tileSize;
+        int y0 = (tile / tilesX) * tileSize;
+        int w = Math.min(tileSize, width - x0);
+        int h = Math.min(tileSize, renderer.getHeight() - y0);
+
+        long t0 = System.nanoTime();
+        renderer.renderRegion(time, x0, y0, w, h, pixels, (y0 * width + x0) * 3, width * 3);
+        long cost = System.nanoTime() - t0;
+
+        lastCost[tile] = cost;
+        busyNanos.computeIfAbsent(Thread.currentThread(), t -> new long[1])[0] += cost;
+    }
+
+    public FrameStats getLastStats() {
+        return lastStats;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    // Занятость воркеров за кадр: busy - время внутри тайлов, остальное - простой
+    public static final class FrameStats {
+        private final long wallNanos;
+        private final long[] busyNanos;
+        private final int tiles;
+
+        FrameStats(long wallNanos, long[] busyNanos, int tiles) {
+            this.wallNanos = wallNanos;
+            this.busyNanos = busyNanos;
+            this.tiles = tiles;
+        }
+
+        public long getWallNanos() {
+            return wallNanos;
+        }
+
+        public int getTileCount() {
+            return tiles;
+        }
+
+        public int getWorkerCount() {
+            return busyNanos.length;
+        }
+
+        public long busyNanos(int worker) {
+            return busyNanos[worker];
+        }
+
+        public double busyFraction(int worker) {
+            return wallNanos == 0 ? 0.0 : (double)busyNanos[worker] / wallNanos;
+        }
+
+        public long idleNanos(int worker) {
+            return Math.max(0L, wallNanos - busyNanos[worker]);
+        }
+
+        public double minBusyFraction() {
+            double min = 1.0;
+            for (int i = 0; i < busyNanos.length; i++) {
+                min = Math.min(min, busyFraction(i));
+            }
+            return min;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(String.format("%d tiles in %.1fms, busy:",
+                    tiles, wallNanos / 1e6));
+            for (int i = 0; i < busyNanos.length; i++) {
+                sb.append(String.format(" %.0f%%", busyFraction(i) * 100));
+            }
+            return sb.append(String.format(" (min %.0f%%)", minBusyFraction() * 100)).toString();
+        }
+    }
+}
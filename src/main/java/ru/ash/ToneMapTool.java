@@ -0,0 +1,38 @@
+package ru.ash;
+
+import ru.ash.framebuffer.HdrFramebuffer;
+import ru.ash.framebuffer.ToneMapper;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Paths;
+
+// Повторный тонмаппинг сохраненного PFM без повторного raymarching:
+// java ru.ash.ToneMapTool input.pfm output.ppm [scale=70] [boost=1]
+public class ToneMapTool {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: ToneMapTool <input.pfm> <output.ppm> [scale] [boost]");
+            System.exit(1);
+        }
+        float scale = args.length > 2 ? Float.parseFloat(args[2]) : 70f;
+        float boost = args.length > 3 ? Float.parseFloat(args[3]) : 1.0f;
+
+        HdrFramebuffer raw = HdrFramebuffer.readPfm(Paths.get(args[0]));
+
+        long startTime = System.nanoTime();
+        byte[] pixels = new ToneMapper(scale, boost).apply(raw);
+        long mapTime = System.nanoTime() - startTime;
+
+        try (FileOutputStream fos = new FileOutputStream(args[1])) {
+            String header = String.format("P6\n%d %d\n255\n", raw.getWidth(), raw.getHeight());
+            fos.write(header.getBytes());
+            fos.write(pixels);
+        }
+
+        System.out.println("Tonemapped " + raw.getWidth() + "x" + raw.getHeight() +
+                " (scale=" + scale + ", boost=" + boost + ") in " +
+                String.format("%.1f", mapTime / 1e6) + "ms");
+    }
+}
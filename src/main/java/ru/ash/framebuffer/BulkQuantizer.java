@@ -0,0 +1,86 @@
+package ru.ash.framebuffer;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+// Последний шаг вывода: строка цветов RGBA (float в [0, 1], уже после tanh) -> RGB-байты.
+// Вместо трех отдельных записей на пиксель четыре пикселя (12 байт) собираются
+// в три int и пишутся VarHandle-записью по невыровненному адресу в byte[].
+// Без дизеринга байты те же, что (byte)(v * 255) по одному каналу - и для значений вне [0, 1]:
+// каждый канал маскируется & 0xFF, чтобы не задеть соседние байты в упакованном int.
+public final class BulkQuantizer {
+    private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    // Матрица Байера 4x4, порог (B + 0.5) / 16 в долях младшего разряда
+    private static final float[] BAYER = new float[16];
+
+    static {
+        int[] matrix = {0, 8, 2, 10, 12, 4, 14, 6, 3, 11, 1, 9, 15, 7, 13, 5};
+        for (int i = 0; i < 16; i++) {
+            BAYER[i] = (matrix[i] + 0.5f) / 16.0f;
+        }
+    }
+
+    private BulkQuantizer() {
+    }
+
+    // width пикселей из rgba (по 4 float) в dst с offset (width * 3 байт)
+    public static void quantizeRow(float[] rgba, int width, byte[] dst, int offset) {
+        int x = 0;
+        for (; x + 4 <= width; x += 4) {
+            int i = x * 4;
+            int r0 = quantize(rgba[i]), g0 = quantize(rgba[i + 1]), b0 = quantize(rgba[i + 2]);
+            int r1 = quantize(rgba[i + 4]), g1 = quantize(rgba[i + 5]), b1 = quantize(rgba[i + 6]);
+            int r2 = quantize(rgba[i + 8]), g2 = quantize(rgba[i + 9]), b2 = quantize(rgba[i + 10]);
+            int r3 = quantize(rgba[i + 12]), g3 = quantize(rgba[i + 13]), b3 = quantize(rgba[i + 14]);
+            INT.set(dst, offset, r0 | g0 << 8 | b0 << 16 | r1 << 24);
+            INT.set(dst, offset + 4, g1 | b1 << 8 | r2 << 16 | g2 << 24);
+            INT.set(dst, offset + 8, b2 | r3 << 8 | g3 << 16 | b3 << 24);
+            offset += 12;
+        }
+        for (; x < width; x++) {
+            int i = x * 4;
+            dst[offset++] = (byte)(rgba[i] * 255);
+            dst[offset++] = (byte)(rgba[i + 1] * 255);
+            dst[offset++] = (byte)(rgba[i + 2] * 255);
+        }
+    }
+
+    // То же с упорядоченным дизерингом: к значению добавляется порог Байера по позиции
+    // пикселя в кадре (x0 + x, y), полосы на плавных градиентах превращаются в мелкий узор
+    public static void quantizeRow(float[] rgba, int width, byte[] dst, int offset, int x0, int y) {
+        int row = (y & 3) * 4;
+        int x = 0;
+        for (; x + 4 <= width; x += 4) {
+            int i = x * 4;
+            float t0 = BAYER[row + ((x0 + x) & 3)];
+            float t1 = BAYER[row + ((x0 + x + 1) & 3)];
+            float t2 = BAYER[row + ((x0 + x + 2) & 3)];
+            float t3 = BAYER[row + ((x0 + x + 3) & 3)];
+            int r0 = dither(rgba[i], t0), g0 = dither(rgba[i + 1], t0), b0 = dither(rgba[i + 2], t0);
+            int r1 = dither(rgba[i + 4], t1), g1 = dither(rgba[i + 5], t1), b1 = dither(rgba[i + 6], t1);
+            int r2 = dither(rgba[i + 8], t2), g2 = dither(rgba[i + 9], t2), b2 = dither(rgba[i + 10], t2);
+            int r3 = dither(rgba[i + 12], t3), g3 = dither(rgba[i + 13], t3), b3 = dither(rgba[i + 14], t3);
+            INT.set(dst, offset, r0 | g0 << 8 | b0 << 16 | r1 << 24);
+            INT.set(dst, offset + 4, g1 | b1 << 8 | r2 << 16 | g2 << 24);
+            INT.set(dst, offset + 8, b2 | r3 << 8 | g3 << 16 | b3 << 24);
+            offset += 12;
+        }
+        for (; x < width; x++) {
+            int i = x * 4;
+            float t = BAYER[row + ((x0 + x) & 3)];
+            dst[offset++] = (byte)dither(rgba[i], t);
+            dst[offset++] = (byte)dither(rgba[i + 1], t);
+            dst[offset++] = (byte)dither(rgba[i + 2], t);
+        }
+    }
+
+    private static int quantize(float v) {
+        return (int)(v * 255) & 0xFF;
+    }
+
+    private static int dither(float v, float threshold) {
+        return Math.min(255, (int)(v * 255 + threshold)) & 0xFF;
+    }
+}
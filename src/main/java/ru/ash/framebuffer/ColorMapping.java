@@ -0,0 +1,13 @@
+package ru.ash.framebuffer;
+
+// Перевод значения после tanh (диапазон [-1, 1]) в яркость канала [0, 1]
+public enum ColorMapping {
+    // Отрицательные значения обрезаются в 0 - как в ExactRaymarchingRenderer
+    CLAMP,
+    // (c + 1) / 2 - весь диапазон tanh растягивается на [0, 1], как Vec4.toRGBBytesMapped
+    SIGNED;
+
+    public float apply(float c) {
+        return this == SIGNED ? (c + 1.0f) * 0.5f : c;
+    }
+}
@@ -0,0 +1,100 @@
+package ru.ash.framebuffer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Кадр вне кучи: direct-буфер или отображенный в файл участок (mmap).
+// Пиксели лежат подряд, строка за строкой, в раскладке PixelFormat.
+// Запись по абсолютным индексам, поэтому разные строки можно заполнять из разных потоков.
+public abstract class Framebuffer implements AutoCloseable {
+    private final int width;
+    private final int height;
+    private final PixelFormat format;
+    protected final ByteBuffer buffer;
+    private final FileChannel channel;
+
+    protected Framebuffer(int width, int height, PixelFormat format, ByteBuffer buffer, FileChannel channel) {
+        long size = (long)width * height * format.getBytesPerPixel();
+        if (buffer.capacity() < size) {
+            throw new IllegalArgumentException("Buffer too small for " + width + "x" + height + " " + format);
+        }
+        this.width = width;
+        this.height = height;
+        this.format = format;
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        this.channel = channel;
+    }
+
+    protected static ByteBuffer allocateDirect(int width, int height, PixelFormat format) {
+        long size = (long)width * height * format.getBytesPerPixel();
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Frame too large for a single buffer: " + size + " bytes");
+        }
+        return ByteBuffer.allocateDirect((int)size);
+    }
+
+    // Создает файл с заголовком формата и отображает в память область пикселей
+    protected static MappedByteBuffer mapFile(FileChannel channel, int width, int height, PixelFormat format)
+            throws IOException {
+        byte[] header = format.fileHeader(width, height).getBytes(StandardCharsets.US_ASCII);
+        long size = (long)width * height * format.getBytesPerPixel();
+        channel.truncate(0);
+        channel.write(ByteBuffer.wrap(header), 0);
+        return channel.map(FileChannel.MapMode.READ_WRITE, header.length, size);
+    }
+
+    protected static FileChannel openForMapping(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public PixelFormat getFormat() {
+        return format;
+    }
+
+    public boolean isMapped() {
+        return channel != null;
+    }
+
+    public int rowBytes() {
+        return width * format.getBytesPerPixel();
+    }
+
+    // Отдельный вид на данные - позиция и лимит не влияют на другие потоки
+    public ByteBuffer view() {
+        return buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // Запись всех пикселей в канал (например, после заголовка PPM в файл или сокет)
+    public void writeTo(WritableByteChannel out) throws IOException {
+        ByteBuffer data = view();
+        data.position(0).limit(height * rowBytes());
+        while (data.hasRemaining()) {
+            out.write(data);
+        }
+    }
+
+    // Для mmap-кадра сбрасывает изменения на диск и закрывает файл
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            ((MappedByteBuffer)buffer).force();
+            channel.close();
+        }
+    }
+}
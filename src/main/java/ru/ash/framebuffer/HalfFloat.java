@@ -0,0 +1,79 @@
+package ru.ash.framebuffer;
+
+// Преобразования float <-> IEEE 754 binary16 (half). Float.floatToFloat16 появился
+// только в JDK 20, поэтому кодирование сделано на битах: округление к ближайшему четному,
+// субнормальные числа, переполнение в бесконечность. Декодирование - по таблице на все
+// 65536 значений (256 КБ), это одна загрузка на канал.
+public final class HalfFloat {
+    private static final float[] DECODE = new float[1 << 16];
+
+    static {
+        for (int h = 0; h < DECODE.length; h++) {
+            DECODE[h] = decode(h);
+        }
+    }
+
+    private HalfFloat() {
+    }
+
+    public static short toHalf(float f) {
+        int bits = Float.floatToRawIntBits(f);
+        int sign = (bits >>> 16) & 0x8000;
+        int abs = bits & 0x7FFFFFFF;
+        if (abs >= 0x7F800000) {
+            // Бесконечность или NaN (NaN остается тихим NaN)
+            return (short)(sign | 0x7C00 | (abs > 0x7F800000 ? 0x200 : 0));
+        }
+        if (abs >= 0x477FF000) {
+            // >= 65520: после округления больше максимального 65504
+            return (short)(sign | 0x7C00);
+        }
+        if (abs < 0x38800000) {
+            // Меньше 2^-14 - субнормальное half; меньше 2^-25 округляется в ноль
+            if (abs <= 0x33000000) {
+                return (short)sign;
+            }
+            int shift = 126 - (abs >>> 23);
+            int mantissa = (abs & 0x7FFFFF) | 0x800000;
+            return (short)(sign | round(mantissa >> shift, mantissa & ((1 << shift) - 1), 1 << (shift - 1)));
+        }
+        // Нормальное: смена смещения порядка 127 -> 15 и 13 младших бит мантиссы на округление.
+        // Перенос из мантиссы в порядок при округлении получается сам собой
+        return (short)(sign | round((abs - 0x38000000) >>> 13, abs & 0x1FFF, 0x1000));
+    }
+
+    private static int round(int value, int remainder, int half) {
+        return remainder > half || (remainder == half && (value & 1) != 0) ? value + 1 : value;
+    }
+
+    public static float toFloat(short h) {
+        return DECODE[h & 0xFFFF];
+    }
+
+    // Пакетные варианты для строк кадра
+    public static void encode(float[] src, int srcOffset, short[] dst, int dstOffset, int count) {
+        for (int i = 0; i < count; i++) {
+            dst[dstOffset + i] = toHalf(src[srcOffset + i]);
+        }
+    }
+
+    public static void decode(short[] src, int srcOffset, float[] dst, int dstOffset, int count) {
+        for (int i = 0; i < count; i++) {
+            dst[dstOffset + i] = DECODE[src[srcOffset + i] & 0xFFFF];
+        }
+    }
+
+    private static float decode(int h) {
+        int sign = (h & 0x8000) << 16;
+        int exponent = (h >>> 10) & 0x1F;
+        int mantissa = h & 0x3FF;
+        if (exponent == 0) {
+            float v = mantissa * 0x1p-24f;
+            return sign != 0 ? -v : v;
+        }
+        if (exponent == 31) {
+            return Float.intBitsToFloat(sign | 0x7F800000 | (mantissa << 13));
+        }
+        return Float.intBitsToFloat(sign | ((exponent + 112) << 23) | (mantissa << 13));
+    }
+}
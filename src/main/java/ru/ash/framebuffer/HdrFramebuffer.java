@@ -0,0 +1,149 @@
+package ru.ash.framebuffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.ObjIntConsumer;
+
+// Float-кадр RGBA вне кучи (PixelFormat.RGBA32F): хранит сырой накопленный o до tanh.
+// Тонмаппинг делается отдельным проходом (ToneMapper) и не требует повторного raymarching.
+public class HdrFramebuffer extends Framebuffer {
+    public static final int CHANNELS = 4;
+
+    private final FloatBuffer data;
+
+    // Direct-буфер живет вне кучи и не нагружает GC при больших кадрах
+    public HdrFramebuffer(int width, int height) {
+        this(width, height, allocateDirect(width, height, PixelFormat.RGBA32F), null);
+    }
+
+    private HdrFramebuffer(int width, int height, ByteBuffer buffer, FileChannel channel) {
+        super(width, height, PixelFormat.RGBA32F, buffer, channel);
+        this.data = this.buffer.asFloatBuffer();
+    }
+
+    // Кадр, отображенный в файл сырых little-endian float RGBA (без заголовка)
+    public static HdrFramebuffer map(Path path, int width, int height) throws IOException {
+        FileChannel channel = openForMapping(path);
+        try {
+            return new HdrFramebuffer(width, height, mapFile(channel, width, height, PixelFormat.RGBA32F), channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public void set(int x, int y, float r, float g, float b, float a) {
+        int offset = (y * getWidth() + x) * CHANNELS;
+        data.put(offset, r);
+        data.put(offset + 1, g);
+        data.put(offset + 2, b);
+        data.put(offset + 3, a);
+    }
+
+    public float get(int x, int y, int channel) {
+        return data.get((y * getWidth() + x) * CHANNELS + channel);
+    }
+
+    // Копирует строку y (width * 4 float) в dst
+    public void getRow(int y, float[] dst) {
+        FloatBuffer view = data.duplicate();
+        view.position(y * getWidth() * CHANNELS);
+        view.get(dst, 0, getWidth() * CHANNELS);
+    }
+
+    public void setRow(int y, float[] src) {
+        FloatBuffer view = data.duplicate();
+        view.position(y * getWidth() * CHANNELS);
+        view.put(src, 0, getWidth() * CHANNELS);
+    }
+
+    // Сохранение в PFM (Portable Float Map, 3 канала, little-endian).
+    // Строки в PFM идут снизу вверх, поэтому картинка совпадает с PPM.
+    public void writePfm(Path path) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            writePfm(out);
+        }
+    }
+
+    public void writePfm(OutputStream out) throws IOException {
+        writePfm(out, getWidth(), getHeight(), (row, y) -> getRow(y, row));
+    }
+
+    // Запись PFM по строкам: rows кладет строку y (width * 4 float) в переданный массив
+    static void writePfm(OutputStream out, int width, int height, ObjIntConsumer<float[]> rows) throws IOException {
+        String header = String.format("PF\n%d %d\n-1.0\n", width, height);
+        out.write(header.getBytes(StandardCharsets.US_ASCII));
+
+        float[] row = RowScratch.floats(width * CHANNELS);
+        ByteBuffer line = ByteBuffer.allocate(width * 3 * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int y = height - 1; y >= 0; y--) {
+            rows.accept(row, y);
+            line.clear();
+            for (int x = 0; x < width; x++) {
+                line.putFloat(row[x * CHANNELS]);
+                line.putFloat(row[x * CHANNELS + 1]);
+                line.putFloat(row[x * CHANNELS + 2]);
+            }
+            out.write(line.array(), 0, line.position());
+        }
+    }
+
+    // Чтение PFM, записанного writePfm (альфа-канал восстанавливается нулем)
+    public static HdrFramebuffer readPfm(Path path) throws IOException {
+        try (InputStream in = new java.io.BufferedInputStream(Files.newInputStream(path))) {
+            String magic = readToken(in);
+            if (!"PF".equals(magic)) {
+                throw new IOException("Unsupported PFM type: " + magic);
+            }
+            int w = Integer.parseInt(readToken(in));
+            int h = Integer.parseInt(readToken(in));
+            float scale = Float.parseFloat(readToken(in));
+            ByteOrder order = scale < 0 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+
+            HdrFramebuffer fb = new HdrFramebuffer(w, h);
+            byte[] raw = new byte[w * 3 * Float.BYTES];
+            float[] row = new float[w * CHANNELS];
+            for (int y = h - 1; y >= 0; y--) {
+                int read = 0;
+                while (read < raw.length) {
+                    int n = in.read(raw, read, raw.length - read);
+                    if (n < 0) {
+                        throw new IOException("Unexpected end of PFM data");
+                    }
+                    read += n;
+                }
+                FloatBuffer line = ByteBuffer.wrap(raw).order(order).asFloatBuffer();
+                for (int x = 0; x < w; x++) {
+                    row[x * CHANNELS] = line.get();
+                    row[x * CHANNELS + 1] = line.get();
+                    row[x * CHANNELS + 2] = line.get();
+                    row[x * CHANNELS + 3] = 0.0f;
+                }
+                fb.setRow(y, row);
+            }
+            return fb;
+        }
+    }
+
+    // Токен заголовка, разделенный пробельными символами (после последнего - ровно один)
+    private static String readToken(InputStream in) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int c;
+        while ((c = in.read()) != -1) {
+            if (Character.isWhitespace(c)) {
+                if (sb.length() > 0) break;
+            } else {
+                sb.append((char)c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,31 @@
+package ru.ash.framebuffer;
+
+// Метрики качества для сравнения быстрых режимов с эталонным рендером
+public final class ImageMetrics {
+
+    private ImageMetrics() {
+    }
+
+    // PSNR в дБ для 8-битных изображений одинакового размера (бесконечность - совпадают)
+    public static double psnr(byte[] reference, byte[] test) {
+        if (reference.length != test.length) {
+            throw new IllegalArgumentException("Image sizes differ: " + reference.length + " vs " + test.length);
+        }
+        double mse = 0.0;
+        for (int i = 0; i < reference.length; i++) {
+            int d = (reference[i] & 0xFF) - (test[i] & 0xFF);
+            mse += d * d;
+        }
+        mse /= reference.length;
+        if (mse == 0.0) return Double.POSITIVE_INFINITY;
+        return 10.0 * Math.log10(255.0 * 255.0 / mse);
+    }
+
+    public static int maxDifference(byte[] reference, byte[] test) {
+        int max = 0;
+        for (int i = 0; i < reference.length; i++) {
+            max = Math.max(max, Math.abs((reference[i] & 0xFF) - (test[i] & 0xFF)));
+        }
+        return max;
+    }
+}
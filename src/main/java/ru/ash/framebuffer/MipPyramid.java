@@ -0,0 +1,101 @@
+package ru.ash.framebuffer;
+
+// Пирамида уменьшенных копий RGB8-кадра: 1/2, 1/4, 1/8 ... (box-фильтр 2x2).
+// Каждый уровень строится из предыдущего, а не из полного кадра, поэтому вся пирамида
+// стоит около трети одного прохода по кадру. Буферы уровней выделяются один раз
+// в конструкторе, build() ничего не аллоцирует и переиспользует их от кадра к кадру.
+// Нечетная последняя строка/столбец уровня отбрасывается.
+public class MipPyramid {
+    private final int width;
+    private final int height;
+    private final int[] widths;
+    private final int[] heights;
+    private final byte[][] levels;
+    // Пара исходных строк при чтении из RgbFramebuffer
+    private final byte[] rows;
+
+    public MipPyramid(int width, int height, int levelCount) {
+        if (levelCount < 1 || width >> levelCount < 1 || height >> levelCount < 1) {
+            throw new IllegalArgumentException("Cannot build " + levelCount + " levels from " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        widths = new int[levelCount];
+        heights = new int[levelCount];
+        levels = new byte[levelCount][];
+        for (int i = 0; i < levelCount; i++) {
+            widths[i] = width >> (i + 1);
+            heights[i] = height >> (i + 1);
+            levels[i] = new byte[widths[i] * heights[i] * 3];
+        }
+        rows = new byte[2 * width * 3];
+    }
+
+    // Строит все уровни из кадра src (width * height * 3 байт, как из renderFrame)
+    public void build(byte[] src) {
+        if (src.length != width * height * 3) {
+            throw new IllegalArgumentException("Expected " + width * height * 3 + " bytes, got " + src.length);
+        }
+        downsample(src, width, levels[0], widths[0], heights[0]);
+        buildUpperLevels();
+    }
+
+    // То же прямо из кадра вне кучи (в т.ч. отображенного в PPM-файл), без копии всего кадра:
+    // пара строк за раз читается абсолютным bulk-get в буфер пирамиды
+    public void build(RgbFramebuffer src) {
+        if (src.getWidth() != width || src.getHeight() != height) {
+            throw new IllegalArgumentException("Expected " + width + "x" + height + " frame, got "
+                    + src.getWidth() + "x" + src.getHeight());
+        }
+        int rowBytes = width * 3;
+        for (int y = 0; y < heights[0]; y++) {
+            src.buffer.get(2 * y * rowBytes, rows, 0, 2 * rowBytes);
+            downsampleRow(rows, 0, rowBytes, levels[0], y * widths[0] * 3, widths[0]);
+        }
+        buildUpperLevels();
+    }
+
+    private void buildUpperLevels() {
+        for (int i = 1; i < levels.length; i++) {
+            downsample(levels[i - 1], widths[i - 1], levels[i], widths[i], heights[i]);
+        }
+    }
+
+    private static void downsample(byte[] src, int srcWidth, byte[] dst, int dstWidth, int dstHeight) {
+        int srcRow = srcWidth * 3;
+        for (int y = 0; y < dstHeight; y++) {
+            int top = 2 * y * srcRow;
+            downsampleRow(src, top, top + srcRow, dst, y * dstWidth * 3, dstWidth);
+        }
+    }
+
+    // Среднее 2x2 с округлением. Цикл без ветвлений и вызовов - C2 разворачивает его сам
+    private static void downsampleRow(byte[] src, int top, int bottom, byte[] dst, int d, int dstWidth) {
+        for (int x = 0; x < dstWidth; x++) {
+            int s = x * 6;
+            for (int c = 0; c < 3; c++) {
+                int sum = (src[top + s + c] & 0xFF) + (src[top + s + c + 3] & 0xFF)
+                        + (src[bottom + s + c] & 0xFF) + (src[bottom + s + c + 3] & 0xFF);
+                dst[d + x * 3 + c] = (byte)((sum + 2) >> 2);
+            }
+        }
+    }
+
+    public int getLevelCount() {
+        return levels.length;
+    }
+
+    // Уровень 0 - половина исходного размера, 1 - четверть и т.д.
+    public int getWidth(int level) {
+        return widths[level];
+    }
+
+    public int getHeight(int level) {
+        return heights[level];
+    }
+
+    // Пиксели уровня; массив переиспользуется следующим build()
+    public byte[] getLevel(int level) {
+        return levels[level];
+    }
+}
@@ -0,0 +1,121 @@
+package ru.ash.framebuffer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ShortBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// HDR-кадр RGBA в 16 битах на канал - вдвое меньше HdrFramebuffer. Постобработка
+// (тонмаппинг, уменьшение, дельта-кодирование) упирается в пропускную способность памяти,
+// и на упакованном кадре читает вдвое меньше байт.
+//
+// RGBA16F - half-float: относительная точность ~0.05% на всем диапазоне до 65504.
+// RGBA16 - фиксированная точка: v = s / 32767 * range, шаг range / 32767 одинаков для
+// всех значений, поэтому темные участки теряют точность сильнее, чем в half.
+// Снаружи строки читаются и пишутся как float[] той же раскладки, что у HdrFramebuffer.
+public class PackedHdrFramebuffer extends Framebuffer {
+    private static final float FIXED_MAX = 32767.0f;
+
+    private final ShortBuffer data;
+    private final float range;
+
+    private PackedHdrFramebuffer(int width, int height, PixelFormat format, float range) {
+        super(width, height, format, allocateDirect(width, height, format), null);
+        this.data = this.buffer.asShortBuffer();
+        this.range = range;
+    }
+
+    public static PackedHdrFramebuffer half(int width, int height) {
+        return new PackedHdrFramebuffer(width, height, PixelFormat.RGBA16F, 0.0f);
+    }
+
+    // Значения за пределами [-range, range] обрезаются
+    public static PackedHdrFramebuffer fixed(int width, int height, float range) {
+        if (!(range > 0.0f)) {
+            throw new IllegalArgumentException("Fixed-point range must be positive: " + range);
+        }
+        return new PackedHdrFramebuffer(width, height, PixelFormat.RGBA16, range);
+    }
+
+    // Упакованная копия float-кадра
+    public static PackedHdrFramebuffer of(HdrFramebuffer src, PixelFormat format, float range) {
+        PackedHdrFramebuffer fb = format == PixelFormat.RGBA16F
+                ? half(src.getWidth(), src.getHeight())
+                : fixed(src.getWidth(), src.getHeight(), range);
+        fb.pack(src);
+        return fb;
+    }
+
+    // Упаковка float-кадра того же размера в этот кадр (например, суммы суперсэмплинга)
+    public void pack(HdrFramebuffer src) {
+        if (src.getWidth() != getWidth() || src.getHeight() != getHeight()) {
+            throw new IllegalArgumentException("Source is " + src.getWidth() + "x" + src.getHeight()
+                    + ", frame is " + getWidth() + "x" + getHeight());
+        }
+        float[] row = RowScratch.floats(getWidth() * HdrFramebuffer.CHANNELS);
+        for (int y = 0; y < getHeight(); y++) {
+            src.getRow(y, row);
+            setRow(y, row);
+        }
+    }
+
+    public float getRange() {
+        return range;
+    }
+
+    // Копирует строку y (width * 4 float) в dst с распаковкой
+    public void getRow(int y, float[] dst) {
+        getRow(y, dst, RowScratch.shorts(getWidth() * HdrFramebuffer.CHANNELS));
+    }
+
+    // packed - буфер вызывающего не короче width * 4, строка читается в него одним абсолютным get
+    public void getRow(int y, float[] dst, short[] packed) {
+        int n = getWidth() * HdrFramebuffer.CHANNELS;
+        data.get(y * n, packed, 0, n);
+        if (getFormat() == PixelFormat.RGBA16F) {
+            HalfFloat.decode(packed, 0, dst, 0, n);
+        } else {
+            float step = range / FIXED_MAX;
+            for (int i = 0; i < n; i++) {
+                dst[i] = packed[i] * step;
+            }
+        }
+    }
+
+    public void setRow(int y, float[] src) {
+        setRow(y, src, RowScratch.shorts(getWidth() * HdrFramebuffer.CHANNELS));
+    }
+
+    public void setRow(int y, float[] src, short[] packed) {
+        int n = getWidth() * HdrFramebuffer.CHANNELS;
+        if (getFormat() == PixelFormat.RGBA16F) {
+            HalfFloat.encode(src, 0, packed, 0, n);
+        } else {
+            float inv = FIXED_MAX / range;
+            for (int i = 0; i < n; i++) {
+                float v = Math.max(-FIXED_MAX, Math.min(FIXED_MAX, src[i] * inv));
+                packed[i] = (short)Math.round(v);
+            }
+        }
+        data.put(y * n, packed, 0, n);
+    }
+
+    // Обратно во float-кадр
+    public HdrFramebuffer toHdr() {
+        HdrFramebuffer fb = new HdrFramebuffer(getWidth(), getHeight());
+        float[] row = RowScratch.floats(getWidth() * HdrFramebuffer.CHANNELS);
+        for (int y = 0; y < getHeight(); y++) {
+            getRow(y, row);
+            fb.setRow(y, row);
+        }
+        return fb;
+    }
+
+    // PFM прямо из упакованных строк - без промежуточного float-кадра
+    public void writePfm(Path path) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            HdrFramebuffer.writePfm(out, getWidth(), getHeight(), (row, y) -> getRow(y, row));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package ru.ash.framebuffer;
+
+// Раскладка пикселей в памяти кадра
+public enum PixelFormat {
+    // 3 байта на пиксель - ровно то, что пишется в PPM после заголовка
+    RGB8(3, 3),
+    // 4 float (little-endian) на пиксель - сырой накопленный цвет до tanh
+    RGBA32F(4, 16),
+    // 4 half-float (binary16) - тот же сырой цвет в половину памяти
+    RGBA16F(4, 8),
+    // 4 знаковых 16-битных числа с фиксированной точкой в диапазоне [-range, range]
+    RGBA16(4, 8);
+
+    private final int channels;
+    private final int bytesPerPixel;
+
+    PixelFormat(int channels, int bytesPerPixel) {
+        this.channels = channels;
+        this.bytesPerPixel = bytesPerPixel;
+    }
+
+    public int getChannels() {
+        return channels;
+    }
+
+    public int getBytesPerPixel() {
+        return bytesPerPixel;
+    }
+
+    // Заголовок файла, который кладется перед пикселями при отображении кадра в файл.
+    // Для RGB8 это обычный PPM, float-кадр пишется как есть, без заголовка.
+    public String fileHeader(int width, int height) {
+        return this == RGB8 ? String.format("P6\n%d %d\n255\n", width, height) : "";
+    }
+}
@@ -0,0 +1,54 @@
+package ru.ash.framebuffer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+// 8-битный RGB-кадр (PixelFormat.RGB8)
+public class RgbFramebuffer extends Framebuffer {
+
+    private RgbFramebuffer(int width, int height, ByteBuffer buffer, FileChannel channel) {
+        super(width, height, PixelFormat.RGB8, buffer, channel);
+    }
+
+    public static RgbFramebuffer allocate(int width, int height) {
+        return new RgbFramebuffer(width, height, allocateDirect(width, height, PixelFormat.RGB8), null);
+    }
+
+    // Кадр, отображенный прямо в PPM-файл: после close() файл готов
+    public static RgbFramebuffer map(Path path, int width, int height) throws IOException {
+        FileChannel channel = openForMapping(path);
+        try {
+            return new RgbFramebuffer(width, height, mapFile(channel, width, height, PixelFormat.RGB8), channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public void set(int x, int y, byte r, byte g, byte b) {
+        int offset = (y * getWidth() + x) * 3;
+        buffer.put(offset, r);
+        buffer.put(offset + 1, g);
+        buffer.put(offset + 2, b);
+    }
+
+    // Запись строки y из src (width * 3 байт начиная с srcOffset)
+    // Абсолютные bulk-операции не трогают позицию буфера - строки пишутся параллельно без duplicate()
+    public void setRow(int y, byte[] src, int srcOffset) {
+        buffer.put(y * rowBytes(), src, srcOffset, rowBytes());
+    }
+
+    public void getRow(int y, byte[] dst, int dstOffset) {
+        buffer.get(y * rowBytes(), dst, dstOffset, rowBytes());
+    }
+
+    public byte[] toArray() {
+        byte[] pixels = new byte[getHeight() * rowBytes()];
+        ByteBuffer view = view();
+        view.position(0);
+        view.get(pixels);
+        return pixels;
+    }
+}
@@ -0,0 +1,30 @@
+package ru.ash.framebuffer;
+
+// Строки на поток для построчных проходов над кадрами: распаковка, упаковка, тонмаппинг, PFM.
+// Растут под самую широкую строку и переиспользуются между строками и кадрами.
+// floats и shorts - разные массивы, поэтому проход может держать оба сразу
+final class RowScratch {
+    private static final ThreadLocal<RowScratch> LOCAL = ThreadLocal.withInitial(RowScratch::new);
+
+    private float[] floats = new float[0];
+    private short[] shorts = new short[0];
+
+    private RowScratch() {
+    }
+
+    static float[] floats(int length) {
+        RowScratch s = LOCAL.get();
+        if (s.floats.length < length) {
+            s.floats = new float[length];
+        }
+        return s.floats;
+    }
+
+    static short[] shorts(int length) {
+        RowScratch s = LOCAL.get();
+        if (s.shorts.length < length) {
+            s.shorts = new short[length];
+        }
+        return s.shorts;
+    }
+}
@@ -0,0 +1,108 @@
+package ru.ash.framebuffer;
+
+import java.util.stream.IntStream;
+
+// Отложенный тонмаппинг: o = tanh(o / scale) * boost с квантованием в RGB-байты.
+// Работает над готовым HdrFramebuffer, поэтому экспозицию можно менять без повторного рендера.
+public class ToneMapper {
+    private final float scale;
+    private final float boost;
+    private final ColorMapping mapping;
+    // Упорядоченный дизеринг при квантовании строк (BulkQuantizer)
+    private final boolean dither;
+
+    public ToneMapper(float scale, float boost) {
+        this(scale, boost, ColorMapping.CLAMP);
+    }
+
+    public ToneMapper(float scale, float boost, ColorMapping mapping) {
+        this(scale, boost, mapping, false);
+    }
+
+    public ToneMapper(float scale, float boost, ColorMapping mapping, boolean dither) {
+        this.scale = scale;
+        this.boost = boost;
+        this.mapping = mapping;
+        this.dither = dither;
+    }
+
+    public float getScale() {
+        return scale;
+    }
+
+    public float getBoost() {
+        return boost;
+    }
+
+    public ColorMapping getMapping() {
+        return mapping;
+    }
+
+    public boolean isDither() {
+        return dither;
+    }
+
+    public byte[] apply(HdrFramebuffer src) {
+        byte[] pixels = new byte[src.getWidth() * src.getHeight() * 3];
+        apply(src, pixels);
+        return pixels;
+    }
+
+    // Строки обрабатываются параллельно; внутри строки - плоский цикл по float[]
+    public void apply(HdrFramebuffer src, byte[] dst) {
+        int width = src.getWidth();
+        IntStream.range(0, src.getHeight()).parallel().forEach(y -> {
+            float[] row = RowScratch.floats(width * HdrFramebuffer.CHANNELS);
+            src.getRow(y, row);
+            mapRow(row, width, dst, y * width * 3, 0, y);
+        });
+    }
+
+    // То же для упакованного 16-битного кадра: строка распаковывается во float и дальше как обычно
+    public void apply(PackedHdrFramebuffer src, byte[] dst) {
+        int width = src.getWidth();
+        IntStream.range(0, src.getHeight()).parallel().forEach(y -> {
+            float[] row = RowScratch.floats(width * HdrFramebuffer.CHANNELS);
+            src.getRow(y, row);
+            mapRow(row, width, dst, y * width * 3, 0, y);
+        });
+    }
+
+    // Тонмаппинг прямо в RGB8-кадр (например, отображенный в PPM-файл)
+    public void apply(HdrFramebuffer src, RgbFramebuffer dst) {
+        int width = src.getWidth();
+        IntStream.range(0, src.getHeight()).parallel().forEach(y -> {
+            float[] row = new float[width * HdrFramebuffer.CHANNELS];
+            byte[] rgb = new byte[width * 3];
+            src.getRow(y, row);
+            mapRow(row, width, rgb, 0, 0, y);
+            dst.setRow(y, rgb, 0);
+        });
+    }
+
+    // Строка сырого RGBA (width пикселей по 4 float) -> width * 3 байт в dst с offset.
+    // Пиксель row[0] лежит в кадре в точке (x0, y) - нужно только для дизеринга.
+    // row перезаписывается значениями после tanh.
+    public void mapRow(float[] row, int width, byte[] dst, int offset, int x0, int y) {
+        for (int i = 0; i < width * HdrFramebuffer.CHANNELS; i += HdrFramebuffer.CHANNELS) {
+            row[i] = tone(row[i]);
+            row[i + 1] = tone(row[i + 1]);
+            row[i + 2] = tone(row[i + 2]);
+        }
+        if (dither) {
+            BulkQuantizer.quantizeRow(row, width, dst, offset, x0, y);
+        } else {
+            BulkQuantizer.quantizeRow(row, width, dst, offset);
+        }
+    }
+
+    // Один канал сырого o -> байт (без дизеринга)
+    public byte map(float raw) {
+        return (byte)(tone(raw) * 255);
+    }
+
+    // Один канал сырого o -> [0, 1] до квантования
+    public float tone(float raw) {
+        return Math.max(0.0f, Math.min(1.0f, mapping.apply((float)Math.tanh(raw / scale)) * boost));
+    }
+}
@@ -0,0 +1,65 @@
+package ru.ash.math;
+
+// Табличный cos для периодического члена length(cos(p/.2))/8.
+// Период 2*pi разбит на size отсчетов (степень двойки), между ними -
+// линейная или кубическая (Catmull-Rom) интерполяция. 1024 отсчета = 4 КБ, таблица живет в L1.
+public final class CosineTable {
+    public enum Interpolation { LINEAR, CUBIC }
+
+    private static final double TWO_PI = 2.0 * Math.PI;
+
+    private final int size;
+    private final int mask;
+    private final float scale;
+    private final Interpolation interpolation;
+    // Один лишний отсчет слева и два справа - для кубики без проверки границ
+    private final float[] table;
+
+    public CosineTable(int size, Interpolation interpolation) {
+        if (size < 4 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("size must be a power of two >= 4: " + size);
+        }
+        this.size = size;
+        this.mask = size - 1;
+        this.scale = (float)(size / TWO_PI);
+        this.interpolation = interpolation;
+        this.table = new float[size + 3];
+        for (int i = -1; i < size + 2; i++) {
+            table[i + 1] = (float)Math.cos(i * TWO_PI / size);
+        }
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public Interpolation getInterpolation() {
+        return interpolation;
+    }
+
+    public float cos(float x) {
+        float t = x * scale;
+        float fl = (float)Math.floor(t);
+        float f = t - fl;
+        // Индекс по модулю периода; long - чтобы большие аргументы не переполняли int
+        int i = (int)((long)fl & mask) + 1;
+
+        if (interpolation == Interpolation.LINEAR) {
+            float a = table[i];
+            return a + (table[i + 1] - a) * f;
+        }
+
+        float p0 = table[i - 1];
+        float p1 = table[i];
+        float p2 = table[i + 1];
+        float p3 = table[i + 2];
+        // Catmull-Rom
+        return p1 + 0.5f * f * (p2 - p0 + f * (2.0f * p0 - 5.0f * p1 + 4.0f * p2 - p3
+                + f * (3.0f * (p1 - p2) + p3 - p0)));
+    }
+
+    @Override
+    public String toString() {
+        return "CosineTable(" + size + ", " + interpolation + ")";
+    }
+}
@@ -0,0 +1,53 @@
+package ru.ash.matrix;
+
+import ru.ash.vectors.ImmutableVec2;
+
+// Неизменяемая матрица 2x2 (value-based record), элементы по строкам как в Mat2
+public record ImmutableMat2(float m00, float m01, float m10, float m11) {
+
+    public static final ImmutableMat2 IDENTITY = new ImmutableMat2(1.0f, 0.0f, 0.0f, 1.0f);
+
+    public static ImmutableMat2 of(Mat2 m) {
+        return new ImmutableMat2(m.m00, m.m01, m.m10, m.m11);
+    }
+
+    public Mat2 toMutable() {
+        return new Mat2(m00, m01, m10, m11);
+    }
+
+    // mat2(cos, -sin, sin, cos) - та же матрица, что Mat2.rotation
+    public static ImmutableMat2 rotation(float angle) {
+        float cosA = (float)Math.cos(angle);
+        float sinA = (float)Math.sin(angle);
+        return new ImmutableMat2(cosA, -sinA, sinA, cosA);
+    }
+
+    public ImmutableVec2 multiply(ImmutableVec2 v) {
+        return new ImmutableVec2(
+                m00 * v.x() + m01 * v.y(),
+                m10 * v.x() + m11 * v.y()
+        );
+    }
+
+    public ImmutableMat2 multiply(ImmutableMat2 other) {
+        return new ImmutableMat2(
+                m00 * other.m00 + m01 * other.m10,
+                m00 * other.m01 + m01 * other.m11,
+                m10 * other.m00 + m11 * other.m10,
+                m10 * other.m01 + m11 * other.m11
+        );
+    }
+
+    public float determinant() {
+        return m00 * m11 - m01 * m10;
+    }
+
+    public ImmutableMat2 transpose() {
+        return new ImmutableMat2(m00, m10, m01, m11);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%.3f, %.3f]\n[%.3f, %.3f]", m00, m01, m10, m11);
+    }
+}
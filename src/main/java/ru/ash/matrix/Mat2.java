@@ -58,6 +58,11 @@ public class Mat2 {
         );
     }
 
+    // То же, но cos/sin берутся из RotationCache (повторные углы не пересчитываются)
+    public static Mat2 cachedRotation(float angle) {
+        return RotationCache.get(angle).toMat2();
+    }
+
     // Конструктор матрицы масштабирования
     public static Mat2 scaling(float scaleX, float scaleY) {
         return new Mat2(
@@ -80,6 +85,25 @@ public class Mat2 {
         );
     }
 
+    // Умножение на вектор с записью в dst без аллокации (dst может быть тем же v)
+    public Vec2 multiplyInto(Vec2 v, Vec2 dst) {
+        return dst.set(
+                m00 * v.x + m01 * v.y,
+                m10 * v.x + m11 * v.y
+        );
+    }
+
+    // Пакетное преобразование count пар (x, y), лежащих подряд в src, с записью в dst.
+    // src и dst могут совпадать - тогда преобразование на месте.
+    public void transform(float[] src, int srcOffset, float[] dst, int dstOffset, int count) {
+        for (int i = 0; i < count; i++) {
+            float x = src[srcOffset + 2 * i];
+            float y = src[srcOffset + 2 * i + 1];
+            dst[dstOffset + 2 * i] = m00 * x + m01 * y;
+            dst[dstOffset + 2 * i + 1] = m10 * x + m11 * y;
+        }
+    }
+
     // Умножение матрицы на матрицу
     public Mat2 multiply(Mat2 other) {
         return new Mat2(
@@ -147,6 +171,22 @@ public class Mat2 {
         );
     }
 
+    // Перезапись всех элементов на месте
+    public Mat2 set(float m00, float m01, float m10, float m11) {
+        this.m00 = m00;
+        this.m01 = m01;
+        this.m10 = m10;
+        this.m11 = m11;
+        return this;
+    }
+
+    // Превращает матрицу в матрицу вращения без создания нового объекта
+    public Mat2 setRotation(float angle) {
+        float cosA = (float)Math.cos(angle);
+        float sinA = (float)Math.sin(angle);
+        return set(cosA, -sinA, sinA, cosA);
+    }
+
     // Получение элемента по индексам
     public float get(int row, int col) {
         if (row == 0) {
@@ -207,7 +247,7 @@ public class Mat2 {
     // В GLSL это означает: mat2(cos(a), -sin(a), sin(a), cos(a)) где a = t/4.0
     public static Mat2 fromGLSLRotation(float time) {
         float angle = time / 4.0f;
-        return rotation(angle);
+        return cachedRotation(angle);
     }
 
     // Статические константы
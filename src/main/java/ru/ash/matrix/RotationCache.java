@@ -0,0 +1,41 @@
+package ru.ash.matrix;
+
+// Небольшой кеш cos/sin по углу для идиомы p.xz *= mat2(...).
+// Угол обычно один на весь кадр (t/4), а считается на каждый пиксель и шаг.
+// Кеш прямого отображения: слот выбирается по битам угла, запись неизменяемая,
+// поэтому чтение из разных потоков безопасно без блокировок.
+public final class RotationCache {
+    private static final int SIZE = 64; // степень двойки
+    private static final Rotation[] SLOTS = new Rotation[SIZE];
+
+    private RotationCache() {
+    }
+
+    // Предвычисленная пара cos/sin для угла
+    public static final class Rotation {
+        public final float angle;
+        public final float cos;
+        public final float sin;
+
+        Rotation(float angle) {
+            this.angle = angle;
+            this.cos = (float)Math.cos(angle);
+            this.sin = (float)Math.sin(angle);
+        }
+
+        public Mat2 toMat2() {
+            return new Mat2(cos, -sin, sin, cos);
+        }
+    }
+
+    public static Rotation get(float angle) {
+        int bits = Float.floatToIntBits(angle);
+        int slot = (bits ^ (bits >>> 16)) & (SIZE - 1);
+        Rotation r = SLOTS[slot];
+        if (r == null || Float.floatToIntBits(r.angle) != bits) {
+            r = new Rotation(angle);
+            SLOTS[slot] = r;
+        }
+        return r;
+    }
+}
@@ -0,0 +1,38 @@
+package ru.ash.preview;
+
+// Выбор уменьшения разрешения превью под целевой FPS: 1 (полное), 2 (половина), 4 (четверть).
+// Кадр дольше бюджета - переходим на уровень грубее. Следующий, более точный уровень
+// дороже в 4 раза по пикселям, поэтому возвращаемся на него только если и с таким
+// запасом кадр укладывается в бюджет - иначе разрешение прыгало бы каждый кадр.
+public class AdaptiveResolution {
+    static final int[] SCALES = {1, 2, 4};
+    private static final double HEADROOM = 0.8;
+
+    private final long budgetNanos;
+    private int level;
+
+    public AdaptiveResolution(double targetFps) {
+        if (targetFps <= 0) {
+            throw new IllegalArgumentException("targetFps must be > 0: " + targetFps);
+        }
+        this.budgetNanos = (long)(1e9 / targetFps);
+        this.level = 0;
+    }
+
+    public int scale() {
+        return SCALES[level];
+    }
+
+    public long getBudgetNanos() {
+        return budgetNanos;
+    }
+
+    // Время только что отрисованного кадра при текущем scale()
+    public void frameRendered(long nanos) {
+        if (nanos > budgetNanos && level < SCALES.length - 1) {
+            level++;
+        } else if (level > 0 && nanos * 4 < budgetNanos * HEADROOM) {
+            level--;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package ru.ash.preview;
+
+import javax.swing.JFrame;
+import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+import javax.swing.WindowConstants;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.GraphicsEnvironment;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.awt.image.BufferedImage;
+
+// Живое превью анимации в окне Swing. Во время анимации разрешение подстраивается
+// под целевой FPS (AdaptiveResolution), на паузе кадр дорисовывается до полного.
+// Пробел - пауза, стрелки - шаг по времени на паузе, Esc - выход.
+// Без дисплея (headless, CI) вместо окна запускается офскрин-бенчмарк.
+// java ru.ash.preview.PreviewApp [width=960] [height=540] [fps=24] [-Dcull=true] [-Dframes=120]
+public class PreviewApp {
+    private static final float TIME_NUDGE = 0.1f;
+
+    private final PreviewRenderer renderer;
+    private final AdaptiveResolution resolution;
+    private final JPanel panel;
+
+    private volatile boolean running = true;
+    private volatile boolean paused = false;
+    private volatile float time = 0.0f;
+    // Масштаб, до которого осталось дорисовать кадр на паузе; 0 - кадр полный
+    private volatile int refineScale = 0;
+    private volatile BufferedImage shown;
+    private volatile String status = "";
+
+    PreviewApp(PreviewRenderer renderer, AdaptiveResolution resolution) {
+        this.renderer = renderer;
+        this.resolution = resolution;
+        this.panel = new JPanel() {
+            @Override
+            protected void paintComponent(Graphics g) {
+                super.paintComponent(g);
+                BufferedImage image = shown;
+                if (image != null) {
+                    // Уменьшенный кадр растягивается на все окно
+                    g.drawImage(image, 0, 0, getWidth(), getHeight(), null);
+                }
+                g.setColor(Color.WHITE);
+                g.drawString(status, 8, 16);
+            }
+        };
+        panel.setPreferredSize(new Dimension(renderer.getWidth(), renderer.getHeight()));
+        panel.setBackground(Color.BLACK);
+    }
+
+    public static void main(String[] args) {
+        int w = args.length > 0 ? Integer.parseInt(args[0]) : 960;
+        int h = args.length > 1 ? Integer.parseInt(args[1]) : 540;
+        double fps = args.length > 2 ? Double.parseDouble(args[2]) : 24.0;
+
+        PreviewRenderer renderer = new PreviewRenderer(w, h);
+        renderer.setBoxCulling(Boolean.getBoolean("cull"));
+        AdaptiveResolution resolution = new AdaptiveResolution(fps);
+
+        if (GraphicsEnvironment.isHeadless()) {
+            System.out.println("No display available - running offscreen benchmark");
+            benchmark(renderer, resolution, Integer.getInteger("frames", 120));
+            return;
+        }
+        PreviewApp app = new PreviewApp(renderer, resolution);
+        SwingUtilities.invokeLater(app::show);
+    }
+
+    private void show() {
+        JFrame frame = new JFrame("Raymarching preview");
+        frame.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+        frame.add(panel);
+        frame.pack();
+        frame.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_SPACE:
+                        paused = !paused;
+                        refineScale = paused ? resolution.scale() : 0;
+                        break;
+                    case KeyEvent.VK_LEFT:
+                    case KeyEvent.VK_RIGHT:
+                        if (paused) {
+                            time += e.getKeyCode() == KeyEvent.VK_RIGHT ? TIME_NUDGE : -TIME_NUDGE;
+                            refineScale = resolution.scale();
+                        }
+                        break;
+                    case KeyEvent.VK_ESCAPE:
+                        frame.dispose();
+                        break;
+                    default:
+                        break;
+                }
+            }
+        });
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                running = false;
+            }
+        });
+        frame.setLocationRelativeTo(null);
+        frame.setVisible(true);
+
+        Thread loop = new Thread(this::renderLoop, "preview-render");
+        loop.setDaemon(true);
+        loop.start();
+    }
+
+    private void renderLoop() {
+        long last = System.nanoTime();
+        while (running) {
+            if (paused) {
+                int scale = refineScale;
+                if (scale == 0) {
+                    // Кадр уже полный - ждем снятия паузы
+                    sleep(20);
+                    last = System.nanoTime();
+                    continue;
+                }
+                long start = System.nanoTime();
+                present(renderer.render(time, scale), String.format("paused t=%.1f 1/%d %.0fms",
+                        time, scale, (System.nanoTime() - start) / 1e6));
+                // Дорисовка: 1/4 -> 1/2 -> 1
+                refineScale = scale > 1 ? scale / 2 : 0;
+                continue;
+            }
+
+            int scale = resolution.scale();
+            long start = System.nanoTime();
+            BufferedImage image = renderer.render(time, scale);
+            long nanos = System.nanoTime() - start;
+            resolution.frameRendered(nanos);
+
+            // Если кадр быстрее бюджета - не рисуем чаще целевого FPS
+            long spare = resolution.getBudgetNanos() - nanos;
+            if (spare > 0) {
+                sleep(spare / 1000000);
+            }
+            long now = System.nanoTime();
+            present(image, String.format("t=%.1f 1/%d %.1f fps", time, scale, 1e9 / (now - last)));
+            time += (now - last) / 1e9f;
+            last = now;
+        }
+    }
+
+    private void present(BufferedImage image, String text) {
+        shown = image;
+        status = text;
+        panel.repaint();
+    }
+
+    // Офскрин: те же кадры и тот же выбор разрешения, но время идет по бюджету кадра.
+    // Печатает распределение масштабов, средний FPS и время дорисовки паузы до полного кадра.
+    static void benchmark(PreviewRenderer renderer, AdaptiveResolution resolution, int frames) {
+        int[] histogram = new int[AdaptiveResolution.SCALES.length];
+        float time = 0.0f;
+        long total = 0;
+        for (int i = 0; i < frames; i++) {
+            int scale = resolution.scale();
+            long start = System.nanoTime();
+            renderer.render(time, scale);
+            long nanos = System.nanoTime() - start;
+            resolution.frameRendered(nanos);
+            total += nanos;
+            for (int k = 0; k < histogram.length; k++) {
+                if (AdaptiveResolution.SCALES[k] == scale) histogram[k]++;
+            }
+            time += resolution.getBudgetNanos() / 1e9f;
+        }
+        StringBuilder scales = new StringBuilder();
+        for (int k = 0; k < histogram.length; k++) {
+            scales.append(String.format(" 1/%d: %d", AdaptiveResolution.SCALES[k], histogram[k]));
+        }
+        System.out.println(String.format("%dx%d, target %.1f fps: %d frames, %.1f fps rendered, frames at%s",
+                renderer.getWidth(), renderer.getHeight(), 1e9 / resolution.getBudgetNanos(),
+                frames, frames * 1e9 / total, scales));
+
+        StringBuilder refine = new StringBuilder("pause refinement:");
+        for (int scale = resolution.scale(); scale >= 1; scale /= 2) {
+            long start = System.nanoTime();
+            renderer.render(time, scale);
+            refine.append(String.format(" 1/%d %.0fms", scale, (System.nanoTime() - start) / 1e6));
+        }
+        System.out.println(refine);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
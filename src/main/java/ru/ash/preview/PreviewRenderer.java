@@ -0,0 +1,73 @@
+package ru.ash.preview;
+
+import ru.ash.ExactRaymarchingRenderer;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.stream.IntStream;
+
+// Рендер превью в BufferedImage через параллельный движок на уменьшенном разрешении.
+// На каждый масштаб свой рендерер и пара изображений: пока одно показывается,
+// во второе рисуется следующий кадр.
+public class PreviewRenderer {
+    private final int width;
+    private final int height;
+    private final ExactRaymarchingRenderer[] renderers = new ExactRaymarchingRenderer[AdaptiveResolution.SCALES.length];
+    private final BufferedImage[][] images = new BufferedImage[AdaptiveResolution.SCALES.length][2];
+    private final int[] flip = new int[AdaptiveResolution.SCALES.length];
+
+    public PreviewRenderer(int width, int height) {
+        this.width = width;
+        this.height = height;
+        for (int i = 0; i < renderers.length; i++) {
+            int scale = AdaptiveResolution.SCALES[i];
+            int w = Math.max(1, width / scale);
+            int h = Math.max(1, height / scale);
+            renderers[i] = new ExactRaymarchingRenderer(w, h);
+            images[i][0] = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            images[i][1] = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public void setBoxCulling(boolean cull) {
+        for (ExactRaymarchingRenderer renderer : renderers) {
+            renderer.setBoxCulling(cull);
+        }
+    }
+
+    // Кадр в масштабе 1/scale. Изображение действительно до вызова render с тем же
+    // масштабом через один (двойная буферизация)
+    public BufferedImage render(float time, int scale) {
+        int i = indexOf(scale);
+        ExactRaymarchingRenderer renderer = renderers[i];
+        BufferedImage image = images[i][flip[i]];
+        flip[i] ^= 1;
+
+        int w = renderer.getWidth();
+        int[] argb = ((DataBufferInt)image.getRaster().getDataBuffer()).getData();
+        IntStream.range(0, renderer.getHeight()).parallel().forEach(y -> {
+            byte[] row = new byte[w * 3];
+            renderer.renderRows(time, y, 1, row, 0);
+            int dst = y * w;
+            for (int x = 0; x < w; x++) {
+                argb[dst + x] = (row[x * 3] & 0xFF) << 16 | (row[x * 3 + 1] & 0xFF) << 8 | (row[x * 3 + 2] & 0xFF);
+            }
+        });
+        return image;
+    }
+
+    private static int indexOf(int scale) {
+        for (int i = 0; i < AdaptiveResolution.SCALES.length; i++) {
+            if (AdaptiveResolution.SCALES[i] == scale) return i;
+        }
+        throw new IllegalArgumentException("Unsupported scale: " + scale);
+    }
+}
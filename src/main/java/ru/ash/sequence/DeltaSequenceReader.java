@@ -0,0 +1,177 @@
+package ru.ash.sequence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+// Чтение файла DeltaSequenceWriter. Кадр n восстанавливается от ближайшего ключевого
+// кадра не позже n; последний восстановленный кадр запоминается, поэтому
+// последовательное чтение стоит одной дельты на кадр. Тайлы декодируются параллельно.
+public class DeltaSequenceReader implements AutoCloseable {
+    private final FileChannel channel;
+    private final int width;
+    private final int height;
+    private final int tileSize;
+    private final int keyInterval;
+    private final int tilesX;
+    private final int tilesY;
+    // Смещения кадров; последний элемент - начало индекса (конец последнего кадра)
+    private final long[] offsets;
+
+    private final byte[] current;
+    private int currentFrame = -1;
+
+    public DeltaSequenceReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = read(0, DeltaSequenceWriter.HEADER_BYTES);
+            if (header.getInt() != DeltaSequenceWriter.MAGIC) {
+                throw new IOException("Not a delta sequence: " + path);
+            }
+            int version = header.getInt();
+            if (version != DeltaSequenceWriter.VERSION) {
+                throw new IOException("Unsupported delta sequence version: " + version);
+            }
+            this.width = header.getInt();
+            this.height = header.getInt();
+            this.tileSize = header.getInt();
+            this.keyInterval = header.getInt();
+            this.tilesX = (width + tileSize - 1) / tileSize;
+            this.tilesY = (height + tileSize - 1) / tileSize;
+
+            long indexOffset = read(channel.size() - Long.BYTES, Long.BYTES).getLong();
+            int frames = read(indexOffset, Integer.BYTES).getInt();
+            ByteBuffer index = read(indexOffset + Integer.BYTES, frames * Long.BYTES);
+            this.offsets = new long[frames + 1];
+            for (int i = 0; i < frames; i++) {
+                offsets[i] = index.getLong();
+            }
+            offsets[frames] = indexOffset;
+            this.current = new byte[width * height * 3];
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getFrameCount() {
+        return offsets.length - 1;
+    }
+
+    // Кадр n в RGB8 (новый массив width * height * 3)
+    public synchronized byte[] readFrame(int n) throws IOException {
+        if (n < 0 || n >= getFrameCount()) {
+            throw new IndexOutOfBoundsException("Frame " + n + " of " + getFrameCount());
+        }
+        int key = n - n % keyInterval;
+        // Уже восстановленный кадр между ключевым и n - продолжаем с него
+        int from = currentFrame >= key && currentFrame <= n ? currentFrame + 1 : key;
+        try {
+            for (int i = from; i <= n; i++) {
+                decodeFrame(i);
+                currentFrame = i;
+            }
+        } catch (IOException | RuntimeException e) {
+            // Часть тайлов уже наложена - current не равен ни одному кадру, следующее чтение пойдет от ключевого
+            currentFrame = -1;
+            throw e;
+        }
+        return current.clone();
+    }
+
+    private void decodeFrame(int frame) throws IOException {
+        long start = offsets[frame];
+        ByteBuffer data = read(start, (int)(offsets[frame + 1] - start));
+        boolean key = data.get() == DeltaSequenceWriter.KEY_FRAME;
+
+        int tiles = tilesX * tilesY;
+        int[] tileOffsets = new int[tiles + 1];
+        tileOffsets[0] = 1 + tiles * Integer.BYTES;
+        for (int t = 0; t < tiles; t++) {
+            tileOffsets[t + 1] = tileOffsets[t] + data.getInt();
+        }
+        byte[] bytes = data.array();
+
+        IOException[] error = new IOException[1];
+        IntStream.range(0, tiles).parallel().forEach(t -> {
+            try {
+                decodeTile(t, bytes, tileOffsets[t], tileOffsets[t + 1] - tileOffsets[t], key);
+            } catch (IOException e) {
+                error[0] = e;
+            }
+        });
+        if (error[0] != null) {
+            throw error[0];
+        }
+    }
+
+    private void decodeTile(int tile, byte[] data, int offset, int length, boolean key) throws IOException {
+        if (length == 0) {
+            // Тайл не менялся (в ключевом кадре пустых тайлов не бывает)
+            return;
+        }
+        int x0 = (tile % tilesX) * tileSize;
+        int y0 = (tile / tilesX) * tileSize;
+        int rowBytes = Math.min(tileSize, width - x0) * 3;
+        int rows = Math.min(tileSize, height - y0);
+
+        byte[] raw = new byte[rowBytes * rows];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, offset, length);
+            int n = 0;
+            while (n < raw.length && !inflater.finished()) {
+                n += inflater.inflate(raw, n, raw.length - n);
+                if (inflater.needsInput()) break;
+            }
+            if (n != raw.length) {
+                throw new IOException("Corrupt tile " + tile + ": " + n + " of " + raw.length + " bytes");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt tile " + tile, e);
+        } finally {
+            inflater.end();
+        }
+
+        for (int y = 0; y < rows; y++) {
+            int dst = ((y0 + y) * width + x0) * 3;
+            int src = y * rowBytes;
+            if (key) {
+                System.arraycopy(raw, src, current, dst, rowBytes);
+            } else {
+                for (int i = 0; i < rowBytes; i++) {
+                    current[dst + i] ^= raw[src + i];
+                }
+            }
+        }
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of delta sequence");
+            }
+        }
+        return buffer.flip();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,169 @@
+package ru.ash.sequence;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.zip.Deflater;
+
+// Запись анимации в дельта-формат вместо отдельных PPM на каждый кадр.
+//
+// Кадр режется на тайлы tileSize x tileSize. Ключевой кадр (каждый keyInterval-й) хранит
+// тайлы целиком, остальные - XOR с предыдущим кадром: соседние кадры почти совпадают,
+// разность состоит в основном из нулей и хорошо жмется Deflate. Тайл без изменений
+// не хранится вовсе. Тайлы кодируются параллельно.
+//
+// Файл (little-endian):
+//   "PPMD" версия ширина высота tileSize keyInterval       - заголовок, 6 x int
+//   кадры: тип (0 - ключевой, 1 - дельта), затем на каждый тайл int длина + Deflate-данные
+//   индекс: int число кадров, затем long смещение каждого кадра
+//   long смещение индекса                                  - последние 8 байт
+public class DeltaSequenceWriter implements AutoCloseable {
+    static final int MAGIC = 0x444D5050; // "PPMD"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 6 * Integer.BYTES;
+    static final byte KEY_FRAME = 0;
+    static final byte DELTA_FRAME = 1;
+
+    private final FileChannel channel;
+    private final int width;
+    private final int height;
+    private final int tileSize;
+    private final int keyInterval;
+    private final int level;
+    private final int tilesX;
+    private final int tilesY;
+    private final byte[] previous;
+    private final List<Long> offsets = new ArrayList<>();
+    private long bytesWritten;
+
+    public DeltaSequenceWriter(Path path, int width, int height) throws IOException {
+        this(path, width, height, 64, 30, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    public DeltaSequenceWriter(Path path, int width, int height, int tileSize, int keyInterval, int level)
+            throws IOException {
+        if (width < 1 || height < 1 || tileSize < 1 || keyInterval < 1) {
+            throw new IllegalArgumentException("Invalid sequence parameters: " + width + "x" + height
+                    + " tile=" + tileSize + " keyInterval=" + keyInterval);
+        }
+        this.width = width;
+        this.height = height;
+        this.tileSize = tileSize;
+        this.keyInterval = keyInterval;
+        this.level = level;
+        this.tilesX = (width + tileSize - 1) / tileSize;
+        this.tilesY = (height + tileSize - 1) / tileSize;
+        this.previous = new byte[width * height * 3];
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(height).putInt(tileSize).putInt(keyInterval);
+        write(header.flip());
+    }
+
+    // Кадр RGB8 (width * height * 3 байт, строки сверху вниз) - как из renderFrame
+    public void writeFrame(byte[] pixels) throws IOException {
+        if (pixels.length != previous.length) {
+            throw new IllegalArgumentException("Expected " + previous.length + " bytes, got " + pixels.length);
+        }
+        boolean key = offsets.size() % keyInterval == 0;
+
+        // Тайлы независимы - каждый кодируется своим Deflater в своем потоке
+        byte[][] tiles = new byte[tilesX * tilesY][];
+        IntStream.range(0, tiles.length).parallel().forEach(t -> tiles[t] = encodeTile(t, pixels, key));
+
+        offsets.add(channel.position());
+        ByteBuffer lengths = ByteBuffer.allocate(1 + tiles.length * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        lengths.put(key ? KEY_FRAME : DELTA_FRAME);
+        for (byte[] tile : tiles) {
+            lengths.putInt(tile.length);
+        }
+        write(lengths.flip());
+        for (byte[] tile : tiles) {
+            write(ByteBuffer.wrap(tile));
+        }
+        System.arraycopy(pixels, 0, previous, 0, pixels.length);
+    }
+
+    public int getFrameCount() {
+        return offsets.size();
+    }
+
+    // Байт записано в файл (после close - вместе с индексом)
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    private byte[] encodeTile(int tile, byte[] pixels, boolean key) {
+        int x0 = (tile % tilesX) * tileSize;
+        int y0 = (tile / tilesX) * tileSize;
+        int rowBytes = Math.min(tileSize, width - x0) * 3;
+        int rows = Math.min(tileSize, height - y0);
+
+        byte[] raw = new byte[rowBytes * rows];
+        boolean changed = key;
+        for (int y = 0; y < rows; y++) {
+            int src = ((y0 + y) * width + x0) * 3;
+            int dst = y * rowBytes;
+            if (key) {
+                System.arraycopy(pixels, src, raw, dst, rowBytes);
+            } else {
+                for (int i = 0; i < rowBytes; i++) {
+                    byte diff = (byte)(pixels[src + i] ^ previous[src + i]);
+                    raw[dst + i] = diff;
+                    changed |= diff != 0;
+                }
+            }
+        }
+        if (!changed) {
+            return new byte[0];
+        }
+
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 4 + 64);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(chunk);
+                out.write(chunk, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            bytesWritten += channel.write(buffer);
+        }
+    }
+
+    // Дописывает индекс кадров для произвольного доступа и закрывает файл
+    @Override
+    public void close() throws IOException {
+        try {
+            long indexOffset = channel.position();
+            ByteBuffer index = ByteBuffer.allocate(Integer.BYTES + offsets.size() * Long.BYTES + Long.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            index.putInt(offsets.size());
+            for (long offset : offsets) {
+                index.putLong(offset);
+            }
+            index.putLong(indexOffset);
+            write(index.flip());
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package ru.ash.server;
+
+// Параметры одного задания рендера. Record - одинаковые запросы равны,
+// что используется для кеша и склейки одновременных запросов.
+public record RenderJob(int width, int height, float time, boolean cull) {
+
+    public RenderJob {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("Invalid size " + width + "x" + height);
+        }
+    }
+
+    public long pixels() {
+        return (long)width * height;
+    }
+}
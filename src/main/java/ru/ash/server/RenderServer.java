@@ -0,0 +1,163 @@
+package ru.ash.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+// Локальный HTTP-фронт для RenderService:
+//   GET /render?w=320&h=180&t=1.3[&cull=true]  -> image/x-portable-pixmap (PPM)
+//   GET /metrics                               -> счетчики и глубина очереди
+// Запросы обслуживаются виртуальными потоками (если JVM их поддерживает),
+// сам raymarching - на ограниченном пуле RenderService.
+//
+// java ru.ash.server.RenderServer [port=8080] [threads=cores] [queue=64] [cacheMb=256]
+public class RenderServer {
+    private static final long MAX_PIXELS = 3840L * 2160L;
+
+    private final HttpServer http;
+    private final RenderService service;
+    private final ExecutorService requestExecutor;
+
+    public RenderServer(int port, RenderService service) throws IOException {
+        this.service = service;
+        this.requestExecutor = newRequestExecutor();
+        this.http = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        this.http.setExecutor(requestExecutor);
+        this.http.createContext("/render", this::handleRender);
+        this.http.createContext("/metrics", this::handleMetrics);
+    }
+
+    public void start() {
+        http.start();
+    }
+
+    public int getPort() {
+        return http.getAddress().getPort();
+    }
+
+    public void stop() {
+        http.stop(0);
+        requestExecutor.shutdownNow();
+    }
+
+    // Виртуальные потоки появились в JDK 21; на более старых JVM - обычный кеширующий пул
+    static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "render-http");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    private void handleRender(HttpExchange exchange) throws IOException {
+        try {
+            RenderJob job;
+            try {
+                Map<String, String> q = parseQuery(exchange.getRequestURI());
+                job = new RenderJob(
+                        Integer.parseInt(q.getOrDefault("w", "320")),
+                        Integer.parseInt(q.getOrDefault("h", "180")),
+                        Float.parseFloat(q.getOrDefault("t", "0")),
+                        Boolean.parseBoolean(q.getOrDefault("cull", "false")));
+                if (job.pixels() > MAX_PIXELS) {
+                    throw new IllegalArgumentException("Image too large: " + job.width() + "x" + job.height());
+                }
+            } catch (IllegalArgumentException e) {
+                sendText(exchange, 400, e.getMessage() + "\n");
+                return;
+            }
+
+            ByteBuffer pixels;
+            try {
+                pixels = service.submit(job).get();
+            } catch (RejectedExecutionException e) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendText(exchange, 503, "Render queue is full\n");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                sendText(exchange, 503, "Interrupted\n");
+                return;
+            } catch (ExecutionException e) {
+                sendText(exchange, 500, "Render failed: " + e.getCause() + "\n");
+                return;
+            }
+
+            byte[] header = String.format("P6\n%d %d\n255\n", job.width(), job.height())
+                    .getBytes(StandardCharsets.US_ASCII);
+            exchange.getResponseHeaders().set("Content-Type", "image/x-portable-pixmap");
+            exchange.sendResponseHeaders(200, header.length + pixels.remaining());
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(header);
+                WritableByteChannel channel = Channels.newChannel(out);
+                while (pixels.hasRemaining()) {
+                    channel.write(pixels);
+                }
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        try {
+            sendText(exchange, 200, service.metrics().toText());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void sendText(HttpExchange exchange, int status, String text) throws IOException {
+        byte[] body = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static Map<String, String> parseQuery(URI uri) {
+        Map<String, String> result = new HashMap<>();
+        String query = uri.getRawQuery();
+        if (query == null) return result;
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                result.put(pair.substring(0, eq), pair.substring(eq + 1));
+            }
+        }
+        return result;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int queue = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        // Лимит кеша готовых кадров в МБ (кадр 4K - около 24 МБ)
+        long cacheMb = args.length > 3 ? Long.parseLong(args[3]) : 256;
+
+        RenderService service = new RenderService(threads, queue, cacheMb << 20);
+        RenderServer server = new RenderServer(port, service);
+        server.start();
+        System.out.println("Render server listening on http://127.0.0.1:" + server.getPort() +
+                " (" + threads + " render threads, queue " + queue + ")");
+    }
+}
@@ -0,0 +1,155 @@
+package ru.ash.server;
+
+import ru.ash.ExactRaymarchingRenderer;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Очередь заданий рендера для долгоживущего сервиса.
+// CPU-работа идет на ограниченном пуле платформенных потоков,
+// очередь ограничена - при переполнении submit отказывает (backpressure).
+// Готовые кадры кешируются (LRU с лимитом по суммарному размеру в байтах),
+// одинаковые задания в полете склеиваются в одно. Кадр отдается только на чтение -
+// один массив разделяют кеш и все вызывающие.
+public class RenderService implements AutoCloseable {
+    private final ThreadPoolExecutor pool;
+    private final int queueCapacity;
+    private final long cacheLimitBytes;
+    private final Map<RenderJob, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+    // LRU по порядку доступа; доступ под synchronized (cache)
+    private final LinkedHashMap<RenderJob, byte[]> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long cacheBytes;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder dedupHits = new LongAdder();
+
+    public RenderService(int threads, int queueCapacity, long cacheLimitBytes) {
+        this.queueCapacity = queueCapacity;
+        this.cacheLimitBytes = cacheLimitBytes;
+        AtomicInteger counter = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "render-worker-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // Возвращает PPM-пиксели (RGB) задания - у каждого вызова свой буфер только для чтения.
+    // Бросает RejectedExecutionException, если очередь заполнена - вызывающий должен повторить позже.
+    public CompletableFuture<ByteBuffer> submit(RenderJob job) {
+        return render(job).thenApply(pixels -> ByteBuffer.wrap(pixels).asReadOnlyBuffer());
+    }
+
+    private CompletableFuture<byte[]> render(RenderJob job) {
+        submitted.increment();
+        byte[] cached;
+        synchronized (cache) {
+            cached = cache.get(job);
+        }
+        if (cached != null) {
+            cacheHits.increment();
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<byte[]> created = new CompletableFuture<>();
+        CompletableFuture<byte[]> existing = inFlight.putIfAbsent(job, created);
+        if (existing != null) {
+            dedupHits.increment();
+            return existing;
+        }
+
+        try {
+            pool.execute(() -> run(job, created));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(job, created);
+            rejected.increment();
+            created.completeExceptionally(e);
+            throw e;
+        }
+        return created;
+    }
+
+    private void run(RenderJob job, CompletableFuture<byte[]> result) {
+        try {
+            ExactRaymarchingRenderer renderer = new ExactRaymarchingRenderer(job.width(), job.height());
+            renderer.setBoxCulling(job.cull());
+            // Задание считается целиком в этом потоке: параллелизм дает сам пул
+            byte[] pixels = new byte[job.width() * job.height() * 3];
+            renderer.renderRows(job.time(), 0, job.height(), pixels, 0);
+            cachePut(job, pixels);
+            completed.increment();
+            result.complete(pixels);
+        } catch (Throwable t) {
+            result.completeExceptionally(t);
+        } finally {
+            inFlight.remove(job, result);
+        }
+    }
+
+    // Кадр больше всего лимита не кешируется; иначе вытесняются самые давние
+    private void cachePut(RenderJob job, byte[] pixels) {
+        if (pixels.length > cacheLimitBytes) {
+            return;
+        }
+        synchronized (cache) {
+            byte[] previous = cache.put(job, pixels);
+            cacheBytes += pixels.length - (previous != null ? previous.length : 0);
+            Iterator<byte[]> eldest = cache.values().iterator();
+            while (cacheBytes > cacheLimitBytes) {
+                cacheBytes -= eldest.next().length;
+                eldest.remove();
+            }
+        }
+    }
+
+    public Metrics metrics() {
+        int cacheSize;
+        long bytes;
+        synchronized (cache) {
+            cacheSize = cache.size();
+            bytes = cacheBytes;
+        }
+        return new Metrics(pool.getQueue().size(), queueCapacity, pool.getActiveCount(), inFlight.size(),
+                submitted.sum(), completed.sum(), rejected.sum(), cacheHits.sum(), dedupHits.sum(), cacheSize, bytes);
+    }
+
+    // Снимок счетчиков сервиса
+    public record Metrics(int queueDepth, int queueCapacity, int activeWorkers, int inFlight,
+                          long submitted, long completed, long rejected,
+                          long cacheHits, long dedupHits, int cacheSize, long cacheBytes) {
+
+        // Формат "ключ значение" по строке - удобно для scrape и grep
+        public String toText() {
+            return "queue_depth " + queueDepth + "\n" +
+                    "queue_capacity " + queueCapacity + "\n" +
+                    "active_workers " + activeWorkers + "\n" +
+                    "in_flight " + inFlight + "\n" +
+                    "jobs_submitted " + submitted + "\n" +
+                    "jobs_completed " + completed + "\n" +
+                    "jobs_rejected " + rejected + "\n" +
+                    "cache_hits " + cacheHits + "\n" +
+                    "dedup_hits " + dedupHits + "\n" +
+                    "cache_size " + cacheSize + "\n" +
+                    "cache_bytes " + cacheBytes + "\n";
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+}
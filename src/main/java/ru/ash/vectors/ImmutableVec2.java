@@ -0,0 +1,72 @@
+package ru.ash.vectors;
+
+// Неизменяемый 2D вектор (value-based record).
+// Без идентичности и изменяемых полей JIT может полностью убрать аллокацию
+// через escape analysis, а после Valhalla record станет value-классом без правок кода.
+public record ImmutableVec2(float x, float y) {
+
+    public static final ImmutableVec2 ZERO = new ImmutableVec2(0.0f, 0.0f);
+
+    public static ImmutableVec2 of(Vec2 v) {
+        return new ImmutableVec2(v.x, v.y);
+    }
+
+    public Vec2 toMutable() {
+        return new Vec2(x, y);
+    }
+
+    public ImmutableVec2 add(ImmutableVec2 other) {
+        return new ImmutableVec2(x + other.x, y + other.y);
+    }
+
+    public ImmutableVec2 add(float value) {
+        return new ImmutableVec2(x + value, y + value);
+    }
+
+    public ImmutableVec2 subtract(ImmutableVec2 other) {
+        return new ImmutableVec2(x - other.x, y - other.y);
+    }
+
+    public ImmutableVec2 multiply(float scalar) {
+        return new ImmutableVec2(x * scalar, y * scalar);
+    }
+
+    public ImmutableVec2 divide(float scalar) {
+        return new ImmutableVec2(x / scalar, y / scalar);
+    }
+
+    public float dot(ImmutableVec2 other) {
+        return x * other.x + y * other.y;
+    }
+
+    public float length() {
+        return (float)Math.sqrt(x * x + y * y);
+    }
+
+    public ImmutableVec2 normalize() {
+        float len = length();
+        if (len == 0.0f) return ZERO;
+        return divide(len);
+    }
+
+    public ImmutableVec2 sin() {
+        return new ImmutableVec2((float)Math.sin(x), (float)Math.sin(y));
+    }
+
+    public ImmutableVec2 cos() {
+        return new ImmutableVec2((float)Math.cos(x), (float)Math.cos(y));
+    }
+
+    public ImmutableVec2 withX(float newX) {
+        return new ImmutableVec2(newX, y);
+    }
+
+    public ImmutableVec2 withY(float newY) {
+        return new ImmutableVec2(x, newY);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("(%.3f, %.3f)", x, y);
+    }
+}
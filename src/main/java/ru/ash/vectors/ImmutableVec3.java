@@ -0,0 +1,92 @@
+package ru.ash.vectors;
+
+// Неизменяемый 3D вектор (value-based record), см. ImmutableVec2.
+// Вместо p.z += 8 пишется p = p.withZ(p.z() + 8) - новый объект, который JIT скаляризует.
+public record ImmutableVec3(float x, float y, float z) {
+
+    public static final ImmutableVec3 ZERO = new ImmutableVec3(0.0f, 0.0f, 0.0f);
+
+    public static ImmutableVec3 of(Vec3 v) {
+        return new ImmutableVec3(v.x, v.y, v.z);
+    }
+
+    public Vec3 toMutable() {
+        return new Vec3(x, y, z);
+    }
+
+    public ImmutableVec3 add(ImmutableVec3 other) {
+        return new ImmutableVec3(x + other.x, y + other.y, z + other.z);
+    }
+
+    public ImmutableVec3 add(float value) {
+        return new ImmutableVec3(x + value, y + value, z + value);
+    }
+
+    public ImmutableVec3 subtract(ImmutableVec3 other) {
+        return new ImmutableVec3(x - other.x, y - other.y, z - other.z);
+    }
+
+    public ImmutableVec3 multiply(ImmutableVec3 other) {
+        return new ImmutableVec3(x * other.x, y * other.y, z * other.z);
+    }
+
+    public ImmutableVec3 multiply(float scalar) {
+        return new ImmutableVec3(x * scalar, y * scalar, z * scalar);
+    }
+
+    public ImmutableVec3 divide(float scalar) {
+        return new ImmutableVec3(x / scalar, y / scalar, z / scalar);
+    }
+
+    public float dot(ImmutableVec3 other) {
+        return x * other.x + y * other.y + z * other.z;
+    }
+
+    public float length() {
+        return (float)Math.sqrt(x * x + y * y + z * z);
+    }
+
+    public ImmutableVec3 normalize() {
+        float len = length();
+        if (len == 0.0f) return ZERO;
+        return divide(len);
+    }
+
+    public ImmutableVec3 sin() {
+        return new ImmutableVec3((float)Math.sin(x), (float)Math.sin(y), (float)Math.sin(z));
+    }
+
+    public ImmutableVec3 cos() {
+        return new ImmutableVec3((float)Math.cos(x), (float)Math.cos(y), (float)Math.cos(z));
+    }
+
+    public ImmutableVec3 clamp(float minVal, float maxVal) {
+        return new ImmutableVec3(
+                Math.max(minVal, Math.min(maxVal, x)),
+                Math.max(minVal, Math.min(maxVal, y)),
+                Math.max(minVal, Math.min(maxVal, z))
+        );
+    }
+
+    // Перестановка компонентов (для .yzx из GLSL)
+    public ImmutableVec3 yzx() {
+        return new ImmutableVec3(y, z, x);
+    }
+
+    public ImmutableVec3 withX(float newX) {
+        return new ImmutableVec3(newX, y, z);
+    }
+
+    public ImmutableVec3 withY(float newY) {
+        return new ImmutableVec3(x, newY, z);
+    }
+
+    public ImmutableVec3 withZ(float newZ) {
+        return new ImmutableVec3(x, y, newZ);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("(%.3f, %.3f, %.3f)", x, y, z);
+    }
+}
@@ -0,0 +1,73 @@
+package ru.ash.vectors;
+
+// Неизменяемый 4D вектор (value-based record), см. ImmutableVec2
+public record ImmutableVec4(float x, float y, float z, float w) {
+
+    public static final ImmutableVec4 ZERO = new ImmutableVec4(0.0f, 0.0f, 0.0f, 0.0f);
+
+    public static ImmutableVec4 of(Vec4 v) {
+        return new ImmutableVec4(v.x, v.y, v.z, v.w);
+    }
+
+    public Vec4 toMutable() {
+        return new Vec4(x, y, z, w);
+    }
+
+    public ImmutableVec4 add(ImmutableVec4 other) {
+        return new ImmutableVec4(x + other.x, y + other.y, z + other.z, w + other.w);
+    }
+
+    public ImmutableVec4 add(float value) {
+        return new ImmutableVec4(x + value, y + value, z + value, w + value);
+    }
+
+    public ImmutableVec4 subtract(ImmutableVec4 other) {
+        return new ImmutableVec4(x - other.x, y - other.y, z - other.z, w - other.w);
+    }
+
+    public ImmutableVec4 multiply(float scalar) {
+        return new ImmutableVec4(x * scalar, y * scalar, z * scalar, w * scalar);
+    }
+
+    public ImmutableVec4 divide(float scalar) {
+        return new ImmutableVec4(x / scalar, y / scalar, z / scalar, w / scalar);
+    }
+
+    public float dot(ImmutableVec4 other) {
+        return x * other.x + y * other.y + z * other.z + w * other.w;
+    }
+
+    public float length() {
+        return (float)Math.sqrt(x * x + y * y + z * z + w * w);
+    }
+
+    public ImmutableVec4 sin() {
+        return new ImmutableVec4((float)Math.sin(x), (float)Math.sin(y), (float)Math.sin(z), (float)Math.sin(w));
+    }
+
+    public ImmutableVec4 cos() {
+        return new ImmutableVec4((float)Math.cos(x), (float)Math.cos(y), (float)Math.cos(z), (float)Math.cos(w));
+    }
+
+    public ImmutableVec4 tanh() {
+        return new ImmutableVec4((float)Math.tanh(x), (float)Math.tanh(y), (float)Math.tanh(z), (float)Math.tanh(w));
+    }
+
+    public ImmutableVec4 clamp(float minVal, float maxVal) {
+        return new ImmutableVec4(
+                Math.max(minVal, Math.min(maxVal, x)),
+                Math.max(minVal, Math.min(maxVal, y)),
+                Math.max(minVal, Math.min(maxVal, z)),
+                Math.max(minVal, Math.min(maxVal, w))
+        );
+    }
+
+    public ImmutableVec3 xyz() {
+        return new ImmutableVec3(x, y, z);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("(%.3f, %.3f, %.3f, %.3f)", x, y, z, w);
+    }
+}
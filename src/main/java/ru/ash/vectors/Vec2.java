@@ -177,6 +177,148 @@ public class Vec2 {
         return (float)Math.sqrt(dx * dx + dy * dy);
     }
 
+    // Операции на месте (без аллокаций) - для горячих циклов.
+    // Возвращают this, чтобы вызовы можно было объединять в цепочки.
+
+    public Vec2 set(float x, float y) {
+        this.x = x;
+        this.y = y;
+        return this;
+    }
+
+    public Vec2 set(Vec2 other) {
+        this.x = other.x;
+        this.y = other.y;
+        return this;
+    }
+
+    public Vec2 addSelf(Vec2 other) {
+        x += other.x;
+        y += other.y;
+        return this;
+    }
+
+    public Vec2 addSelf(float value) {
+        x += value;
+        y += value;
+        return this;
+    }
+
+    public Vec2 subtractSelf(Vec2 other) {
+        x -= other.x;
+        y -= other.y;
+        return this;
+    }
+
+    public Vec2 subtractSelf(float value) {
+        x -= value;
+        y -= value;
+        return this;
+    }
+
+    public Vec2 multiplySelf(Vec2 other) {
+        x *= other.x;
+        y *= other.y;
+        return this;
+    }
+
+    public Vec2 multiplySelf(float value) {
+        x *= value;
+        y *= value;
+        return this;
+    }
+
+    public Vec2 divideSelf(Vec2 other) {
+        x /= other.x;
+        y /= other.y;
+        return this;
+    }
+
+    public Vec2 divideSelf(float value) {
+        x /= value;
+        y /= value;
+        return this;
+    }
+
+    public Vec2 sinSelf() {
+        x = (float)Math.sin(x);
+        y = (float)Math.sin(y);
+        return this;
+    }
+
+    public Vec2 cosSelf() {
+        x = (float)Math.cos(x);
+        y = (float)Math.cos(y);
+        return this;
+    }
+
+    public Vec2 absSelf() {
+        x = Math.abs(x);
+        y = Math.abs(y);
+        return this;
+    }
+
+    public Vec2 clampSelf(float minVal, float maxVal) {
+        x = Math.max(minVal, Math.min(maxVal, x));
+        y = Math.max(minVal, Math.min(maxVal, y));
+        return this;
+    }
+
+    // Варианты с записью результата в dst (dst может совпадать с this или аргументом)
+
+    public Vec2 addInto(Vec2 other, Vec2 dst) {
+        return dst.set(x + other.x, y + other.y);
+    }
+
+    public Vec2 addInto(float value, Vec2 dst) {
+        return dst.set(x + value, y + value);
+    }
+
+    public Vec2 subtractInto(Vec2 other, Vec2 dst) {
+        return dst.set(x - other.x, y - other.y);
+    }
+
+    public Vec2 subtractInto(float value, Vec2 dst) {
+        return dst.set(x - value, y - value);
+    }
+
+    public Vec2 multiplyInto(Vec2 other, Vec2 dst) {
+        return dst.set(x * other.x, y * other.y);
+    }
+
+    public Vec2 multiplyInto(float value, Vec2 dst) {
+        return dst.set(x * value, y * value);
+    }
+
+    public Vec2 divideInto(Vec2 other, Vec2 dst) {
+        return dst.set(x / other.x, y / other.y);
+    }
+
+    public Vec2 divideInto(float value, Vec2 dst) {
+        return dst.set(x / value, y / value);
+    }
+
+    public Vec2 sinInto(Vec2 dst) {
+        return dst.set((float)Math.sin(x), (float)Math.sin(y));
+    }
+
+    public Vec2 cosInto(Vec2 dst) {
+        return dst.set((float)Math.cos(x), (float)Math.cos(y));
+    }
+
+    public Vec2 rotateSelf(float angle) {
+        float cosA = (float)Math.cos(angle);
+        float sinA = (float)Math.sin(angle);
+        return set(x * cosA - y * sinA, x * sinA + y * cosA);
+    }
+
+    public Vec2 clampInto(float minVal, float maxVal, Vec2 dst) {
+        return dst.set(
+                Math.max(minVal, Math.min(maxVal, x)),
+                Math.max(minVal, Math.min(maxVal, y))
+        );
+    }
+
     // Статические методы
 
     public static Vec2 add(Vec2 a, Vec2 b) {
@@ -245,10 +387,6 @@ public class Vec2 {
 
     public void setX(float x) { this.x = x; }
     public void setY(float y) { this.y = y; }
-    public void set(float x, float y) {
-        this.x = x;
-        this.y = y;
-    }
 
     // Получение в виде массива
     public float[] toArray() {
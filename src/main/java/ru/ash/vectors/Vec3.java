@@ -174,6 +174,211 @@ public class Vec3 {
         return new Vec3(z, x, y);
     }
 
+    // Операции на месте (без аллокаций) - для горячих циклов.
+    // Возвращают this, чтобы вызовы можно было объединять в цепочки.
+
+    public Vec3 set(float x, float y, float z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        return this;
+    }
+
+    public Vec3 set(Vec3 other) {
+        this.x = other.x;
+        this.y = other.y;
+        this.z = other.z;
+        return this;
+    }
+
+    public Vec3 addSelf(Vec3 other) {
+        x += other.x;
+        y += other.y;
+        z += other.z;
+        return this;
+    }
+
+    public Vec3 addSelf(float value) {
+        x += value;
+        y += value;
+        z += value;
+        return this;
+    }
+
+    public Vec3 subtractSelf(Vec3 other) {
+        x -= other.x;
+        y -= other.y;
+        z -= other.z;
+        return this;
+    }
+
+    public Vec3 subtractSelf(float value) {
+        x -= value;
+        y -= value;
+        z -= value;
+        return this;
+    }
+
+    public Vec3 multiplySelf(Vec3 other) {
+        x *= other.x;
+        y *= other.y;
+        z *= other.z;
+        return this;
+    }
+
+    public Vec3 multiplySelf(float value) {
+        x *= value;
+        y *= value;
+        z *= value;
+        return this;
+    }
+
+    public Vec3 divideSelf(Vec3 other) {
+        x /= other.x;
+        y /= other.y;
+        z /= other.z;
+        return this;
+    }
+
+    public Vec3 divideSelf(float value) {
+        x /= value;
+        y /= value;
+        z /= value;
+        return this;
+    }
+
+    public Vec3 sinSelf() {
+        x = (float)Math.sin(x);
+        y = (float)Math.sin(y);
+        z = (float)Math.sin(z);
+        return this;
+    }
+
+    public Vec3 cosSelf() {
+        x = (float)Math.cos(x);
+        y = (float)Math.cos(y);
+        z = (float)Math.cos(z);
+        return this;
+    }
+
+    public Vec3 absSelf() {
+        x = Math.abs(x);
+        y = Math.abs(y);
+        z = Math.abs(z);
+        return this;
+    }
+
+    public Vec3 clampSelf(float minVal, float maxVal) {
+        x = Math.max(minVal, Math.min(maxVal, x));
+        y = Math.max(minVal, Math.min(maxVal, y));
+        z = Math.max(minVal, Math.min(maxVal, z));
+        return this;
+    }
+
+    // Поворот пары компонент на месте с готовыми sin/cos - то же, что
+    // p.xz *= mat2(cos, -sin, sin, cos) через Mat2.multiply, но без временного Vec2:
+    // x' = cos*x - sin*z, z' = sin*x + cos*z
+    public Vec3 rotateXZ(float sin, float cos) {
+        float nx = cos * x - sin * z;
+        float nz = sin * x + cos * z;
+        x = nx;
+        z = nz;
+        return this;
+    }
+
+    public Vec3 rotateXY(float sin, float cos) {
+        float nx = cos * x - sin * y;
+        float ny = sin * x + cos * y;
+        x = nx;
+        y = ny;
+        return this;
+    }
+
+    public Vec3 rotateYZ(float sin, float cos) {
+        float ny = cos * y - sin * z;
+        float nz = sin * y + cos * z;
+        y = ny;
+        z = nz;
+        return this;
+    }
+
+    // Пакетный поворот xz для count точек (x, y, z), лежащих подряд в массиве
+    public static void rotateXZ(float[] xyz, int offset, int count, float sin, float cos) {
+        for (int i = 0; i < count; i++) {
+            int k = offset + 3 * i;
+            float x = xyz[k];
+            float z = xyz[k + 2];
+            xyz[k] = cos * x - sin * z;
+            xyz[k + 2] = sin * x + cos * z;
+        }
+    }
+
+    // Варианты с записью результата в dst (dst может совпадать с this или аргументом)
+
+    public Vec3 addInto(Vec3 other, Vec3 dst) {
+        return dst.set(x + other.x, y + other.y, z + other.z);
+    }
+
+    public Vec3 addInto(float value, Vec3 dst) {
+        return dst.set(x + value, y + value, z + value);
+    }
+
+    public Vec3 subtractInto(Vec3 other, Vec3 dst) {
+        return dst.set(x - other.x, y - other.y, z - other.z);
+    }
+
+    public Vec3 subtractInto(float value, Vec3 dst) {
+        return dst.set(x - value, y - value, z - value);
+    }
+
+    public Vec3 multiplyInto(Vec3 other, Vec3 dst) {
+        return dst.set(x * other.x, y * other.y, z * other.z);
+    }
+
+    public Vec3 multiplyInto(float value, Vec3 dst) {
+        return dst.set(x * value, y * value, z * value);
+    }
+
+    public Vec3 divideInto(Vec3 other, Vec3 dst) {
+        return dst.set(x / other.x, y / other.y, z / other.z);
+    }
+
+    public Vec3 divideInto(float value, Vec3 dst) {
+        return dst.set(x / value, y / value, z / value);
+    }
+
+    public Vec3 sinInto(Vec3 dst) {
+        return dst.set((float)Math.sin(x), (float)Math.sin(y), (float)Math.sin(z));
+    }
+
+    public Vec3 cosInto(Vec3 dst) {
+        return dst.set((float)Math.cos(x), (float)Math.cos(y), (float)Math.cos(z));
+    }
+
+    public Vec3 yzxInto(Vec3 dst) {
+        return dst.set(y, z, x);
+    }
+
+    public Vec3 zxyInto(Vec3 dst) {
+        return dst.set(z, x, y);
+    }
+
+    public Vec3 normalizeInto(Vec3 dst) {
+        float len = length();
+        if (len == 0.0f) {
+            return dst.set(0, 0, 0);
+        }
+        return dst.set(x / len, y / len, z / len);
+    }
+
+    public Vec3 clampInto(float minVal, float maxVal, Vec3 dst) {
+        return dst.set(
+                Math.max(minVal, Math.min(maxVal, x)),
+                Math.max(minVal, Math.min(maxVal, y)),
+                Math.max(minVal, Math.min(maxVal, z))
+        );
+    }
+
     // Статические методы для удобства
 
     public static Vec3 add(Vec3 a, Vec3 b) {
@@ -210,6 +210,188 @@ public class Vec4 {
         );
     }
 
+    // Операции на месте (без аллокаций) - для горячих циклов.
+    // Возвращают this, чтобы вызовы можно было объединять в цепочки.
+
+    public Vec4 set(float x, float y, float z, float w) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.w = w;
+        return this;
+    }
+
+    public Vec4 set(Vec4 other) {
+        this.x = other.x;
+        this.y = other.y;
+        this.z = other.z;
+        this.w = other.w;
+        return this;
+    }
+
+    public Vec4 addSelf(Vec4 other) {
+        x += other.x;
+        y += other.y;
+        z += other.z;
+        w += other.w;
+        return this;
+    }
+
+    public Vec4 addSelf(float value) {
+        x += value;
+        y += value;
+        z += value;
+        w += value;
+        return this;
+    }
+
+    public Vec4 subtractSelf(Vec4 other) {
+        x -= other.x;
+        y -= other.y;
+        z -= other.z;
+        w -= other.w;
+        return this;
+    }
+
+    public Vec4 subtractSelf(float value) {
+        x -= value;
+        y -= value;
+        z -= value;
+        w -= value;
+        return this;
+    }
+
+    public Vec4 multiplySelf(Vec4 other) {
+        x *= other.x;
+        y *= other.y;
+        z *= other.z;
+        w *= other.w;
+        return this;
+    }
+
+    public Vec4 multiplySelf(float value) {
+        x *= value;
+        y *= value;
+        z *= value;
+        w *= value;
+        return this;
+    }
+
+    public Vec4 divideSelf(Vec4 other) {
+        x /= other.x;
+        y /= other.y;
+        z /= other.z;
+        w /= other.w;
+        return this;
+    }
+
+    public Vec4 divideSelf(float value) {
+        x /= value;
+        y /= value;
+        z /= value;
+        w /= value;
+        return this;
+    }
+
+    public Vec4 sinSelf() {
+        x = (float)Math.sin(x);
+        y = (float)Math.sin(y);
+        z = (float)Math.sin(z);
+        w = (float)Math.sin(w);
+        return this;
+    }
+
+    public Vec4 cosSelf() {
+        x = (float)Math.cos(x);
+        y = (float)Math.cos(y);
+        z = (float)Math.cos(z);
+        w = (float)Math.cos(w);
+        return this;
+    }
+
+    public Vec4 tanhSelf() {
+        x = (float)Math.tanh(x);
+        y = (float)Math.tanh(y);
+        z = (float)Math.tanh(z);
+        w = (float)Math.tanh(w);
+        return this;
+    }
+
+    public Vec4 absSelf() {
+        x = Math.abs(x);
+        y = Math.abs(y);
+        z = Math.abs(z);
+        w = Math.abs(w);
+        return this;
+    }
+
+    public Vec4 clampSelf(float minVal, float maxVal) {
+        x = Math.max(minVal, Math.min(maxVal, x));
+        y = Math.max(minVal, Math.min(maxVal, y));
+        z = Math.max(minVal, Math.min(maxVal, z));
+        w = Math.max(minVal, Math.min(maxVal, w));
+        return this;
+    }
+
+    // Варианты с записью результата в dst (dst может совпадать с this или аргументом)
+
+    public Vec4 addInto(Vec4 other, Vec4 dst) {
+        return dst.set(x + other.x, y + other.y, z + other.z, w + other.w);
+    }
+
+    public Vec4 addInto(float value, Vec4 dst) {
+        return dst.set(x + value, y + value, z + value, w + value);
+    }
+
+    public Vec4 subtractInto(Vec4 other, Vec4 dst) {
+        return dst.set(x - other.x, y - other.y, z - other.z, w - other.w);
+    }
+
+    public Vec4 subtractInto(float value, Vec4 dst) {
+        return dst.set(x - value, y - value, z - value, w - value);
+    }
+
+    public Vec4 multiplyInto(Vec4 other, Vec4 dst) {
+        return dst.set(x * other.x, y * other.y, z * other.z, w * other.w);
+    }
+
+    public Vec4 multiplyInto(float value, Vec4 dst) {
+        return dst.set(x * value, y * value, z * value, w * value);
+    }
+
+    public Vec4 divideInto(Vec4 other, Vec4 dst) {
+        return dst.set(x / other.x, y / other.y, z / other.z, w / other.w);
+    }
+
+    public Vec4 divideInto(float value, Vec4 dst) {
+        return dst.set(x / value, y / value, z / value, w / value);
+    }
+
+    public Vec4 sinInto(Vec4 dst) {
+        return dst.set((float)Math.sin(x), (float)Math.sin(y), (float)Math.sin(z), (float)Math.sin(w));
+    }
+
+    public Vec4 cosInto(Vec4 dst) {
+        return dst.set((float)Math.cos(x), (float)Math.cos(y), (float)Math.cos(z), (float)Math.cos(w));
+    }
+
+    public Vec4 tanhInto(Vec4 dst) {
+        return dst.set((float)Math.tanh(x), (float)Math.tanh(y), (float)Math.tanh(z), (float)Math.tanh(w));
+    }
+
+    public Vec4 yzwxInto(Vec4 dst) {
+        return dst.set(y, z, w, x);
+    }
+
+    public Vec4 clampInto(float minVal, float maxVal, Vec4 dst) {
+        return dst.set(
+                Math.max(minVal, Math.min(maxVal, x)),
+                Math.max(minVal, Math.min(maxVal, y)),
+                Math.max(minVal, Math.min(maxVal, z)),
+                Math.max(minVal, Math.min(maxVal, w))
+        );
+    }
+
     // Статические методы
 
     public static Vec4 add(Vec4 a, Vec4 b) {
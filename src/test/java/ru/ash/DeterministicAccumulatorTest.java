@@ -0,0 +1,42 @@
+package ru.ash;
+
+import org.junit.jupiter.api.Test;
+import ru.ash.framebuffer.HdrFramebuffer;
+
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class DeterministicAccumulatorTest {
+
+    @Test
+    public void sameHashForAnyThreadCount() {
+        ExactRaymarchingRenderer renderer = new ExactRaymarchingRenderer(48, 27);
+        // 6 сэмплов - две группы разного размера (4 + 2) в каждом тайле
+        long expected = hash(new SupersamplingRenderer(renderer, 6, SamplePattern.STRATIFIED).accumulate(2.1f));
+
+        for (int threads : new int[] {1, 4, 32}) {
+            try (DeterministicAccumulator accumulator =
+                         new DeterministicAccumulator(renderer, 6, SamplePattern.STRATIFIED, 16, threads)) {
+                assertEquals(expected, hash(accumulator.accumulate(2.1f)), "threads " + threads);
+            }
+        }
+    }
+
+    // CRC32 точных битов float всех каналов
+    private static long hash(HdrFramebuffer fb) {
+        CRC32 crc = new CRC32();
+        for (int y = 0; y < fb.getHeight(); y++) {
+            for (int x = 0; x < fb.getWidth(); x++) {
+                for (int ch = 0; ch < HdrFramebuffer.CHANNELS; ch++) {
+                    int bits = Float.floatToRawIntBits(fb.get(x, y, ch));
+                    crc.update(bits);
+                    crc.update(bits >>> 8);
+                    crc.update(bits >>> 16);
+                    crc.update(bits >>> 24);
+                }
+            }
+        }
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,76 @@
+package ru.ash;
+
+import org.junit.jupiter.api.Test;
+import ru.ash.vectors.ImmutableVec3;
+import ru.ash.vectors.ImmutableVec4;
+import ru.ash.vectors.Vec3;
+import ru.ash.vectors.Vec4;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExactRaymarchingRendererTest {
+
+    @Test
+    public void boxCullingStaysWithinToleranceAndSavesSteps() {
+        for (float time : new float[] {0.0f, 1.3f, 7.5f}) {
+            ExactRaymarchingRenderer exact = new ExactRaymarchingRenderer(96, 54);
+            byte[] reference = exact.renderFrame(time);
+
+            ExactRaymarchingRenderer culled = new ExactRaymarchingRenderer(96, 54);
+            culled.setBoxCulling(true);
+            byte[] pixels = culled.renderFrame(time);
+
+            int maxDiff = 0;
+            for (int i = 0; i < reference.length; i++) {
+                maxDiff = Math.max(maxDiff, Math.abs((reference[i] & 0xFF) - (pixels[i] & 0xFF)));
+            }
+            assertTrue(maxDiff <= 1, "max channel difference " + maxDiff + " at time " + time);
+            assertTrue(culled.getStepCount() < exact.getStepCount() * 0.6,
+                    "steps " + culled.getStepCount() + " vs " + exact.getStepCount());
+        }
+    }
+
+    @Test
+    public void legacyRendererRejectsBoxCulling() {
+        // Для tanh(o/0.09) и SIGNED запас коробки не обоснован: отсечение портило кадр на 127 уровней
+        RaymarchingRenderer legacy = new RaymarchingRenderer(96, 54);
+        assertFalse(legacy.supportsBoxCulling());
+        byte[] reference = legacy.renderFrame(1.3f);
+        assertThrows(IllegalArgumentException.class, () -> legacy.setBoxCulling(true));
+        assertFalse(legacy.isBoxCulling());
+        assertArrayEquals(reference, legacy.renderFrame(1.3f));
+        legacy.setBoxCulling(false);
+    }
+
+    @Test
+    public void immutablePathMatchesReferencePath() {
+        ExactRaymarchingRenderer renderer = new ExactRaymarchingRenderer(64, 36);
+        for (int maxSteps : new int[] {50, 17}) {
+            renderer.setMaxSteps(maxSteps);
+            for (int[] pixel : new int[][] {{0, 0}, {32, 18}, {63, 35}, {10, 27}}) {
+                Vec3 dir = renderer.normalizePixelCoords(pixel[0], pixel[1]);
+                Vec4 expected = renderer.rayMarch(dir, 1.3f);
+                ImmutableVec4 actual = renderer.rayMarchValue(new ImmutableVec3(dir.x, dir.y, dir.z), 1.3f);
+                String where = "pixel " + pixel[0] + "," + pixel[1] + " steps " + maxSteps;
+                assertEquals(expected.x, actual.x(), where);
+                assertEquals(expected.y, actual.y(), where);
+                assertEquals(expected.z, actual.z(), where);
+                assertEquals(expected.w, actual.w(), where);
+            }
+        }
+    }
+
+    @Test
+    public void batchedFramesMatchSingleFrames() {
+        ExactRaymarchingRenderer renderer = new ExactRaymarchingRenderer(64, 36);
+        float[] times = {0.0f, 0.1f, 0.2f, 5.3f};
+        byte[][] frames = renderer.renderFrames(times);
+        for (int k = 0; k < times.length; k++) {
+            assertArrayEquals(renderer.renderFrame(times[k]), frames[k], "frame at time " + times[k]);
+        }
+    }
+}
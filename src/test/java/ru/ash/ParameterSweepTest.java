@@ -0,0 +1,69 @@
+package ru.ash;
+
+import org.junit.jupiter.api.Test;
+import ru.ash.framebuffer.ToneMapper;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ParameterSweepTest {
+    private static final int W = 24;
+    private static final int H = 14;
+
+    @Test
+    public void variantsShareRawPasses() throws InterruptedException {
+        ParameterSweep.Matrix matrix = new ParameterSweep.Matrix(
+                new float[] {0.5f}, new float[] {70.0f, 35.0f}, new int[] {50, 20}, new float[] {0.0f, 0.5f});
+        ParameterSweep sweep = new ParameterSweep(W, H, 2, 0.5f, matrix);
+        byte[][][] result = sweep.run(2);
+
+        // 8 вариантов x 2 кадра на выходе; tanh и steps делят проход, а время 0.5 есть
+        // у обоих сдвигов - трассируются только времена 0, 0.5 и 1.0
+        assertEquals(8, sweep.variants().size());
+        assertEquals(3, sweep.getRawFrameCount());
+
+        for (ParameterSweep.Variant v : sweep.variants()) {
+            ExactRaymarchingRenderer renderer = new ExactRaymarchingRenderer(W, H);
+            renderer.setMaxSteps(v.steps());
+            ToneMapper toneMapper = new ToneMapper(v.tanhScale(), 1.00f);
+            for (int f = 0; f < 2; f++) {
+                float time = f * 0.5f + v.timeOffset();
+                assertArrayEquals(toneMapper.apply(renderer.renderHdr(time)), result[v.index()][f],
+                        "variant " + v + " frame " + f);
+            }
+        }
+    }
+
+    @Test
+    public void contactSheetPlacesFramesInGrid() {
+        ParameterSweep sweep = new ParameterSweep(3, 2, 2, 0.5f, new ParameterSweep.Matrix(
+                new float[] {0.5f}, new float[] {70.0f}, new int[] {50}, new float[] {0.0f}));
+        assertEquals(2 + 2 * (3 + 2), sweep.sheetWidth());
+        assertEquals(2 + 3 * (2 + 2), sweep.sheetHeight(3));
+
+        // Кадр [v][f] залит значением 10 * v + f + 1
+        byte[][][] frames = new byte[3][2][];
+        for (int v = 0; v < 3; v++) {
+            for (int f = 0; f < 2; f++) {
+                frames[v][f] = new byte[3 * 2 * 3];
+                Arrays.fill(frames[v][f], (byte)(10 * v + f + 1));
+            }
+        }
+        byte[] sheet = sweep.contactSheet(frames);
+        int sheetWidth = sweep.sheetWidth();
+        assertEquals(sheetWidth * sweep.sheetHeight(3) * 3, sheet.length);
+        for (int y = 0; y < sweep.sheetHeight(3); y++) {
+            for (int x = 0; x < sheetWidth; x++) {
+                int expected = 0;
+                int fx = x - 2;
+                int vy = y - 2;
+                if (fx >= 0 && vy >= 0 && fx % 5 < 3 && vy % 4 < 2) {
+                    expected = 10 * (vy / 4) + fx / 5 + 1;
+                }
+                assertEquals(expected, sheet[(y * sheetWidth + x) * 3], "pixel " + x + "," + y);
+            }
+        }
+    }
+}
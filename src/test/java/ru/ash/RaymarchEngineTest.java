@@ -0,0 +1,136 @@
+package ru.ash;
+
+import org.junit.jupiter.api.Test;
+import ru.ash.framebuffer.PackedHdrFramebuffer;
+import ru.ash.framebuffer.PixelFormat;
+import ru.ash.vectors.Vec4;
+
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RaymarchEngineTest {
+    private static final float[] TIMES = {0.0f, 1.3f, 7.5f};
+
+    // CRC32 кадров 64x36, снятые с исходных реализаций до объединения в RaymarchEngine
+    private static final String[] EXACT_GOLDEN = {"3534fa0c", "de91afe3", "75d071b9"};
+    private static final String[] LEGACY_GOLDEN = {"dddb00bd", "f2256342", "af9cea6d"};
+
+    @Test
+    public void exactRendererMatchesGoldenFrames() {
+        for (int i = 0; i < TIMES.length; i++) {
+            assertEquals(EXACT_GOLDEN[i], crc(new ExactRaymarchingRenderer(64, 36).renderFrame(TIMES[i])),
+                    "exact frame at time " + TIMES[i]);
+        }
+    }
+
+    @Test
+    public void legacyRendererMatchesGoldenFrames() {
+        for (int i = 0; i < TIMES.length; i++) {
+            assertEquals(LEGACY_GOLDEN[i], crc(new RaymarchingRenderer(64, 36).renderFrame(TIMES[i])),
+                    "legacy frame at time " + TIMES[i]);
+        }
+    }
+
+    @Test
+    public void referencePathMatchesFastPath() {
+        for (RaymarchEngine engine : new RaymarchEngine[] {
+                new ExactRaymarchingRenderer(64, 36), new RaymarchingRenderer(64, 36)}) {
+            byte[] fast = engine.renderFrame(1.3f);
+            engine.setReference(true);
+            assertArrayEquals(fast, engine.renderFrame(1.3f), engine.getClass().getSimpleName());
+        }
+    }
+
+    @Test
+    public void regionMatchesFullFrameCrop() {
+        for (RaymarchEngine engine : new RaymarchEngine[] {
+                new ExactRaymarchingRenderer(64, 36), new RaymarchingRenderer(64, 36)}) {
+            byte[] frame = engine.renderFrame(7.5f);
+            int x0 = 13, y0 = 7, w = 21, h = 17, stride = w * 3 + 5;
+            byte[] crop = new byte[(h - 1) * stride + w * 3];
+            engine.renderRegion(7.5f, x0, y0, w, h, crop, stride);
+            for (int y = 0; y < h; y++) {
+                for (int i = 0; i < w * 3; i++) {
+                    assertEquals(frame[((y0 + y) * 64 + x0) * 3 + i], crop[y * stride + i],
+                            engine.getClass().getSimpleName() + " row " + y + " byte " + i);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void aovPassKeepsColorAndMatchesReference() {
+        for (RaymarchEngine engine : new RaymarchEngine[] {
+                new ExactRaymarchingRenderer(64, 36), new RaymarchingRenderer(64, 36)}) {
+            String name = engine.getClass().getSimpleName();
+            AovBuffers fast = new AovBuffers(64, 36, true, true);
+            assertArrayEquals(engine.renderFrame(1.3f), engine.renderFrame(1.3f, fast), name);
+            engine.setReference(true);
+            AovBuffers reference = new AovBuffers(64, 36, true, true);
+            engine.renderFrame(1.3f, reference);
+            assertArrayEquals(reference.getDepth(), fast.getDepth(), name);
+            assertArrayEquals(reference.getSteps(), fast.getSteps(), name);
+            for (int steps : fast.getSteps()) {
+                assertTrue(steps >= 1 && steps <= engine.getMaxSteps(), name + " steps " + steps);
+            }
+        }
+    }
+
+    @Test
+    public void aovPassIgnoresBoxCulling() {
+        ExactRaymarchingRenderer plain = new ExactRaymarchingRenderer(64, 36);
+        AovBuffers expected = new AovBuffers(64, 36, true, true);
+        byte[] pixels = plain.renderFrame(1.3f, expected);
+
+        ExactRaymarchingRenderer culled = new ExactRaymarchingRenderer(64, 36);
+        culled.setBoxCulling(true);
+        AovBuffers actual = new AovBuffers(64, 36, true, true);
+        assertArrayEquals(pixels, culled.renderFrame(1.3f, actual));
+        assertArrayEquals(expected.getDepth(), actual.getDepth());
+        assertArrayEquals(expected.getSteps(), actual.getSteps());
+    }
+
+    @Test
+    public void stepSnapshotsMatchShorterMarches() {
+        int[] steps = {1, 7, 20, 50};
+        for (RaymarchEngine engine : new RaymarchEngine[] {
+                new ExactRaymarchingRenderer(32, 18), new RaymarchingRenderer(32, 18)}) {
+            RaymarchScratch scratch = RaymarchScratch.get();
+            float[] snapshots = new float[steps.length * 4];
+            for (int y = 0; y < 18; y += 5) {
+                for (int x = 0; x < 32; x += 3) {
+                    engine.setMaxSteps(50);
+                    engine.tracePixelSteps(x, y, 1.3f, steps, snapshots, scratch);
+                    for (int j = 0; j < steps.length; j++) {
+                        engine.setMaxSteps(steps[j]);
+                        Vec4 c = engine.tracePixel(x, y, 1.3f, scratch);
+                        assertArrayEquals(new float[] {c.x, c.y, c.z, c.w},
+                                Arrays.copyOfRange(snapshots, j * 4, j * 4 + 4),
+                                engine.getClass().getSimpleName() + " " + x + "," + y + " steps " + steps[j]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void packedHdrMatchesPackedCopyOfFloatFrame() {
+        ExactRaymarchingRenderer engine = new ExactRaymarchingRenderer(64, 36);
+        for (float time : TIMES) {
+            PackedHdrFramebuffer packed = PackedHdrFramebuffer.half(64, 36);
+            engine.renderHdr(time, packed);
+            PackedHdrFramebuffer copy = PackedHdrFramebuffer.of(engine.renderHdr(time), PixelFormat.RGBA16F, 0.0f);
+            assertEquals(copy.view(), packed.view(), "time " + time);
+        }
+    }
+
+    private static String crc(byte[] pixels) {
+        CRC32 crc = new CRC32();
+        crc.update(pixels);
+        return Long.toHexString(crc.getValue());
+    }
+}
@@ -0,0 +1,57 @@
+package ru.ash;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class StreamingRendererTest {
+
+    @Test
+    public void bandsArriveInOrderAndFormTheFrame() throws IOException {
+        // 37 строк полосами по 5: 8 полос (последняя из 2 строк) при окне из 6 буферов
+        ExactRaymarchingRenderer renderer = new ExactRaymarchingRenderer(40, 37);
+        byte[] frame = renderer.renderFrame(1.3f);
+
+        List<byte[]> writes = new ArrayList<>();
+        new StreamingRenderer(renderer, 5, 3).render(1.3f, new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) {
+                byte[] chunk = new byte[src.remaining()];
+                src.get(chunk);
+                writes.add(chunk);
+                return chunk.length;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+
+        assertEquals("P6\n40 37\n255\n", new String(writes.get(0), StandardCharsets.US_ASCII));
+        assertEquals(1 + 8, writes.size());
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        for (int band = 0; band < 8; band++) {
+            int y0 = band * 5;
+            int rows = Math.min(5, 37 - y0);
+            assertArrayEquals(Arrays.copyOfRange(frame, y0 * 40 * 3, (y0 + rows) * 40 * 3), writes.get(1 + band),
+                    "band " + band);
+            body.write(writes.get(1 + band));
+        }
+        assertArrayEquals(frame, body.toByteArray());
+    }
+}
@@ -0,0 +1,24 @@
+package ru.ash;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+public class SupersamplingRendererTest {
+
+    @Test
+    public void adaptiveMatchesFixedSampleCounts() {
+        for (SamplePattern pattern : SamplePattern.values()) {
+            ExactRaymarchingRenderer renderer = new ExactRaymarchingRenderer(32, 18);
+            SupersamplingRenderer base = new SupersamplingRenderer(renderer, 4, pattern);
+            SupersamplingRenderer full = new SupersamplingRenderer(renderer, 9, pattern);
+
+            // Порог выше любой дисперсии - ни один пиксель не добирается, кадр как с 4 сэмплами
+            assertArrayEquals(base.renderFrame(1.3f),
+                    base.renderFrameAdaptive(1.3f, 9, Float.POSITIVE_INFINITY), pattern + " flat");
+            // Отрицательный порог - добираются все пиксели, кадр как с 9 сэмплами
+            assertArrayEquals(full.renderFrame(1.3f),
+                    base.renderFrameAdaptive(1.3f, 9, -1.0f), pattern + " refined");
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package ru.ash;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TileSchedulerTest {
+
+    @Test
+    public void tiledFrameMatchesRowFrame() {
+        // 13 не делит 70x40 - крайние тайлы неполные
+        ExactRaymarchingRenderer renderer = new ExactRaymarchingRenderer(70, 40);
+        try (TileScheduler tiles = new TileScheduler(renderer, 13, 3)) {
+            // Второй кадр идет уже в порядке стоимостей первого
+            for (float time : new float[] {1.3f, 1.4f}) {
+                assertArrayEquals(renderer.renderFrame(time), tiles.renderFrame(time), "time " + time);
+            }
+        }
+    }
+
+    @Test
+    public void statsCoverEveryTileWithinWallTime() {
+        ExactRaymarchingRenderer renderer = new ExactRaymarchingRenderer(70, 40);
+        try (TileScheduler tiles = new TileScheduler(renderer, 13, 3)) {
+            tiles.renderFrame(0.0f);
+            TileScheduler.FrameStats stats = tiles.getLastStats();
+            assertEquals(6 * 4, stats.getTileCount());
+            assertEquals(3, stats.getWorkerCount());
+            long busy = 0;
+            for (int i = 0; i < stats.getWorkerCount(); i++) {
+                assertTrue(stats.busyNanos(i) <= stats.getWallNanos(), "worker " + i);
+                busy += stats.busyNanos(i);
+            }
+            assertTrue(busy > 0);
+            assertTrue(busy <= stats.getWallNanos() * 3, busy + " vs " + stats.getWallNanos());
+        }
+    }
+}
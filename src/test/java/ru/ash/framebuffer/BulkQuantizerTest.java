@@ -0,0 +1,58 @@
+package ru.ash.framebuffer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+public class BulkQuantizerTest {
+    private static final int[] BAYER = {0, 8, 2, 10, 12, 4, 14, 6, 3, 11, 1, 9, 15, 7, 13, 5};
+
+    @Test
+    public void matchesScalarQuantizationForAnyWidth() {
+        Random random = new Random(7);
+        // Ширины не кратные 4 проходят через хвостовой цикл, 8 и 9 - через обе ветки
+        for (int width : new int[] {1, 2, 3, 5, 7, 8, 9}) {
+            float[] rgba = randomRow(random, width);
+            for (int y = 0; y < 4; y++) {
+                for (int x0 = 0; x0 < 4; x0++) {
+                    byte[] plain = new byte[2 + width * 3];
+                    byte[] dithered = new byte[2 + width * 3];
+                    BulkQuantizer.quantizeRow(rgba, width, plain, 2);
+                    BulkQuantizer.quantizeRow(rgba, width, dithered, 2, x0, y);
+
+                    byte[] expectedPlain = new byte[2 + width * 3];
+                    byte[] expectedDithered = new byte[2 + width * 3];
+                    for (int x = 0; x < width; x++) {
+                        float t = (BAYER[(y & 3) * 4 + ((x0 + x) & 3)] + 0.5f) / 16.0f;
+                        for (int c = 0; c < 3; c++) {
+                            float v = rgba[x * 4 + c];
+                            expectedPlain[2 + x * 3 + c] = (byte)(v * 255);
+                            expectedDithered[2 + x * 3 + c] = (byte)Math.min(255, (int)(v * 255 + t));
+                        }
+                    }
+                    assertArrayEquals(expectedPlain, plain, "width " + width);
+                    assertArrayEquals(expectedDithered, dithered, "width " + width + " at " + x0 + "," + y);
+                }
+            }
+        }
+    }
+
+    private static float[] randomRow(Random random, int width) {
+        float[] rgba = new float[width * 4];
+        for (int i = 0; i < rgba.length; i++) {
+            rgba[i] = random.nextFloat();
+        }
+        // Вне [0, 1]: канал обрезается до младшего байта и не задевает соседей
+        if (width > 4) {
+            rgba[5] = -0.5f;
+            rgba[6] = 1.7f;
+            rgba[8] = 3.0f;
+        }
+        // Края диапазона: дизеринг не должен переполнять 255
+        rgba[0] = 1.0f;
+        rgba[1] = 0.0f;
+        return rgba;
+    }
+}
@@ -0,0 +1,41 @@
+package ru.ash.framebuffer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HalfFloatTest {
+
+    @Test
+    public void everyHalfSurvivesRoundTrip() {
+        for (int h = 0; h < 1 << 16; h++) {
+            float f = HalfFloat.toFloat((short)h);
+            if (!Float.isNaN(f)) {
+                assertEquals(h, HalfFloat.toHalf(f) & 0xFFFF, "half 0x" + Integer.toHexString(h));
+            }
+        }
+    }
+
+    @Test
+    public void roundsToNearestEvenAndSaturates() {
+        assertEquals(0x3C00, HalfFloat.toHalf(1.0f));
+        assertEquals(0xC000, HalfFloat.toHalf(-2.0f) & 0xFFFF);
+        assertEquals(0x7BFF, HalfFloat.toHalf(65504.0f));
+        assertEquals(0x7C00, HalfFloat.toHalf(65520.0f));
+        assertEquals(0x0001, HalfFloat.toHalf(0x1p-24f));
+        assertEquals(0x0000, HalfFloat.toHalf(0x1p-25f));
+        // Ровно посередине между 1 и 1 + 2^-10 - к четной мантиссе
+        assertEquals(0x3C00, HalfFloat.toHalf(1.0f + 0x1p-11f));
+        assertEquals(0x3C02, HalfFloat.toHalf(1.0f + 3 * 0x1p-11f));
+
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            float f = (random.nextFloat() - 0.5f) * 4096.0f;
+            float back = HalfFloat.toFloat(HalfFloat.toHalf(f));
+            assertTrue(Math.abs(back - f) <= Math.abs(f) * 0x1p-11f + 0x1p-25f, f + " -> " + back);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package ru.ash.framebuffer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MipPyramidTest {
+
+    @Test
+    public void oddDimensionsAreTruncated() {
+        MipPyramid pyramid = new MipPyramid(960, 540, 3);
+        assertEquals(480, pyramid.getWidth(0));
+        assertEquals(270, pyramid.getHeight(0));
+        assertEquals(135, pyramid.getHeight(1));
+        assertEquals(120, pyramid.getWidth(2));
+        assertEquals(67, pyramid.getHeight(2));
+        assertEquals(120 * 67 * 3, pyramid.getLevel(2).length);
+    }
+
+    @Test
+    public void averagesTwoByTwoWithRounding() {
+        // 5x3: последний столбец и последняя строка в уровень 2x1 не попадают
+        int[] red = {
+                0, 0, 1, 1, 200,
+                0, 1, 1, 0, 200,
+                200, 200, 200, 200, 200};
+        byte[] src = new byte[5 * 3 * 3];
+        for (int i = 0; i < red.length; i++) {
+            src[i * 3] = (byte)red[i];
+            src[i * 3 + 1] = (byte)255;
+            src[i * 3 + 2] = (byte)(i == 0 ? 2 : 0);
+        }
+        MipPyramid pyramid = new MipPyramid(5, 3, 1);
+        pyramid.build(src);
+        // (0+0+0+1+2)>>2 = 0, (1+1+1+0+2)>>2 = 1; 255 не переполняется; (2+2)>>2 = 1
+        assertArrayEquals(new byte[] {0, (byte)255, 1, 1, (byte)255, 0}, pyramid.getLevel(0));
+    }
+
+    @Test
+    public void framebufferSourceMatchesArraySource() {
+        byte[] pixels = new byte[33 * 21 * 3];
+        new Random(3).nextBytes(pixels);
+        RgbFramebuffer fb = RgbFramebuffer.allocate(33, 21);
+        for (int y = 0; y < 21; y++) {
+            fb.setRow(y, pixels, y * 33 * 3);
+        }
+
+        MipPyramid fromArray = new MipPyramid(33, 21, 2);
+        fromArray.build(pixels);
+        MipPyramid fromBuffer = new MipPyramid(33, 21, 2);
+        fromBuffer.build(fb);
+        for (int level = 0; level < 2; level++) {
+            assertArrayEquals(fromArray.getLevel(level), fromBuffer.getLevel(level), "level " + level);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package ru.ash.framebuffer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PackedHdrFramebufferTest {
+    private static final float RANGE = 64.0f;
+    private static final float STEP = RANGE / 32767.0f;
+
+    @Test
+    public void fixedPointRoundsToNearestStepAndClamps() {
+        PackedHdrFramebuffer fb = PackedHdrFramebuffer.fixed(2, 1, RANGE);
+        float[] src = {
+                10 * STEP + 0.4f * STEP, 10 * STEP + 0.6f * STEP, -10 * STEP - 0.6f * STEP, 0.0f,
+                RANGE * 2, -RANGE * 2, RANGE, -RANGE};
+        fb.setRow(0, src);
+
+        float[] dst = new float[8];
+        fb.getRow(0, dst);
+        assertArrayEquals(new float[] {10 * STEP, 11 * STEP, -11 * STEP, 0.0f,
+                32767 * STEP, -32767 * STEP, 32767 * STEP, -32767 * STEP}, dst);
+        assertThrows(IllegalArgumentException.class, () -> PackedHdrFramebuffer.fixed(2, 1, 0.0f));
+    }
+
+    @Test
+    public void fixedPointRoundTripStaysWithinHalfStep() {
+        Random random = new Random(11);
+        float[] src = new float[37 * HdrFramebuffer.CHANNELS];
+        for (int i = 0; i < src.length; i++) {
+            src[i] = (random.nextFloat() * 2.0f - 1.0f) * RANGE;
+        }
+        PackedHdrFramebuffer fb = PackedHdrFramebuffer.fixed(37, 3, RANGE);
+        fb.setRow(1, src);
+        float[] dst = new float[src.length];
+        fb.getRow(1, dst);
+        for (int i = 0; i < src.length; i++) {
+            assertTrue(Math.abs(src[i] - dst[i]) <= STEP * 0.5f + 1e-6f, "channel " + i);
+        }
+
+        // Буфер вызывающего дает ту же упаковку, что и буфер потока
+        PackedHdrFramebuffer other = PackedHdrFramebuffer.fixed(37, 3, RANGE);
+        other.setRow(1, src, new short[src.length + 5]);
+        assertEquals(fb.view(), other.view());
+    }
+
+    @Test
+    public void pfmFromPackedRowsMatchesUnpackedFrame() throws IOException {
+        HdrFramebuffer hdr = new HdrFramebuffer(9, 4);
+        Random random = new Random(13);
+        for (int y = 0; y < 4; y++) {
+            for (int x = 0; x < 9; x++) {
+                hdr.set(x, y, random.nextFloat() * 900, random.nextFloat(), -random.nextFloat(), 1.0f);
+            }
+        }
+        PackedHdrFramebuffer packed = PackedHdrFramebuffer.of(hdr, PixelFormat.RGBA16F, 0.0f);
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        packed.toHdr().writePfm(expected);
+        Path file = Files.createTempFile("packed", ".pfm");
+        try {
+            packed.writePfm(file);
+            assertArrayEquals(expected.toByteArray(), Files.readAllBytes(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package ru.ash.preview;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AdaptiveResolutionTest {
+
+    @Test
+    public void dropsWhenOverBudgetAndRefinesOnlyWithHeadroom() {
+        AdaptiveResolution resolution = new AdaptiveResolution(25.0); // 40ms
+        assertEquals(1, resolution.scale());
+
+        resolution.frameRendered(60_000_000L);
+        assertEquals(2, resolution.scale());
+        resolution.frameRendered(45_000_000L);
+        assertEquals(4, resolution.scale());
+        resolution.frameRendered(45_000_000L);
+        assertEquals(4, resolution.scale());
+
+        // 9ms * 4 = 36ms - в бюджет, но без запаса: остаемся на 1/4
+        resolution.frameRendered(9_000_000L);
+        assertEquals(4, resolution.scale());
+        resolution.frameRendered(5_000_000L);
+        assertEquals(2, resolution.scale());
+        resolution.frameRendered(5_000_000L);
+        assertEquals(1, resolution.scale());
+    }
+}
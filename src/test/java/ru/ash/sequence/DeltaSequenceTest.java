@@ -0,0 +1,85 @@
+package ru.ash.sequence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DeltaSequenceTest {
+
+    @Test
+    public void framesRoundTripInAnyOrder(@TempDir Path dir) throws Exception {
+        // Размер не кратен тайлу - проверяются и обрезанные крайние тайлы
+        int w = 45, h = 23;
+        Random random = new Random(7);
+        byte[][] frames = new byte[12][w * h * 3];
+        random.nextBytes(frames[0]);
+        for (int i = 1; i < frames.length; i++) {
+            frames[i] = frames[i - 1].clone();
+            // Меняется небольшая часть пикселей, кадр 5 повторяет предыдущий
+            for (int k = 0; i != 5 && k < 40; k++) {
+                frames[i][random.nextInt(frames[i].length)] = (byte)random.nextInt();
+            }
+        }
+
+        Path file = dir.resolve("seq.ppmd");
+        try (DeltaSequenceWriter writer = new DeltaSequenceWriter(file, w, h, 16, 4, 6)) {
+            for (byte[] frame : frames) {
+                writer.writeFrame(frame);
+            }
+        }
+
+        try (DeltaSequenceReader reader = new DeltaSequenceReader(file)) {
+            assertEquals(frames.length, reader.getFrameCount());
+            for (int n : new int[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 7, 2, 11, 9, 9, 0, 6}) {
+                assertArrayEquals(frames[n], reader.readFrame(n), "frame " + n);
+            }
+        }
+    }
+
+    @Test
+    public void failedDecodeDoesNotPoisonLaterReads(@TempDir Path dir) throws Exception {
+        int w = 40, h = 20;
+        Random random = new Random(9);
+        byte[][] frames = new byte[3][w * h * 3];
+        for (byte[] frame : frames) {
+            // Меняются все тайлы - при сбое в последнем остальные уже наложены
+            random.nextBytes(frame);
+        }
+        Path file = dir.resolve("seq.ppmd");
+        try (DeltaSequenceWriter writer = new DeltaSequenceWriter(file, w, h, 16, 4, 2)) {
+            for (byte[] frame : frames) {
+                writer.writeFrame(frame);
+            }
+        }
+
+        // Портим заголовок zlib последнего тайла кадра 2: 1 байт типа, затем длины 3x2 тайлов
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        long index = buffer.getLong(bytes.length - Long.BYTES);
+        int frame2 = (int)buffer.getLong((int)index + Integer.BYTES + 2 * Long.BYTES);
+        int tiles = 3 * 2;
+        int lastTile = frame2 + 1 + tiles * Integer.BYTES;
+        for (int t = 0; t < tiles - 1; t++) {
+            lastTile += buffer.getInt(frame2 + 1 + t * Integer.BYTES);
+        }
+        bytes[lastTile] ^= (byte)0xFF;
+        Files.write(file, bytes);
+
+        try (DeltaSequenceReader reader = new DeltaSequenceReader(file)) {
+            assertArrayEquals(frames[1], reader.readFrame(1));
+            assertThrows(IOException.class, () -> reader.readFrame(2));
+            assertArrayEquals(frames[1], reader.readFrame(1));
+            assertArrayEquals(frames[0], reader.readFrame(0));
+        }
+    }
+}
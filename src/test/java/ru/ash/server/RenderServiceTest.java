@@ -0,0 +1,83 @@
+package ru.ash.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RenderServiceTest {
+
+    @Test
+    public void cacheHitReturnsReadOnlyFrame() throws Exception {
+        try (RenderService service = new RenderService(1, 4, 1 << 20)) {
+            RenderJob job = new RenderJob(32, 18, 1.3f, false);
+            ByteBuffer first = service.submit(job).get();
+            ByteBuffer second = service.submit(job).get();
+
+            assertEquals(1, service.metrics().cacheHits());
+            assertEquals(first, second);
+            assertTrue(second.isReadOnly());
+            assertThrows(ReadOnlyBufferException.class, () -> second.put(0, (byte)1));
+            // Чтение одним вызывающим не двигает буфер другого
+            second.get(new byte[second.remaining()]);
+            assertEquals(32 * 18 * 3, service.submit(job).get().remaining());
+        }
+    }
+
+    @Test
+    public void cacheIsBoundedByBytes() throws Exception {
+        int frameBytes = 32 * 18 * 3;
+        try (RenderService service = new RenderService(1, 4, 2L * frameBytes)) {
+            for (int i = 0; i < 3; i++) {
+                service.submit(new RenderJob(32, 18, i, false)).get();
+            }
+            RenderService.Metrics metrics = service.metrics();
+            assertEquals(2, metrics.cacheSize());
+            assertEquals(2L * frameBytes, metrics.cacheBytes());
+
+            // Самый давний кадр вытеснен - повторный запрос рендерится заново
+            service.submit(new RenderJob(32, 18, 0, false)).get();
+            assertEquals(0, service.metrics().cacheHits());
+            assertEquals(4, service.metrics().completed());
+        }
+    }
+
+    @Test
+    public void identicalJobsInFlightAreRenderedOnce() throws Exception {
+        try (RenderService service = new RenderService(1, 4, 1 << 24)) {
+            // Долгое задание занимает единственный поток, следующие ждут в очереди
+            CompletableFuture<ByteBuffer> slow = service.submit(new RenderJob(320, 180, 0, false));
+            RenderJob job = new RenderJob(32, 18, 1.3f, false);
+            CompletableFuture<ByteBuffer> a = service.submit(job);
+            CompletableFuture<ByteBuffer> b = service.submit(job);
+
+            assertEquals(a.get(), b.get());
+            slow.get();
+            assertEquals(1, service.metrics().dedupHits());
+            assertEquals(2, service.metrics().completed());
+        }
+    }
+
+    @Test
+    public void fullQueueRejectsSubmissions() throws Exception {
+        try (RenderService service = new RenderService(1, 1, 1 << 24)) {
+            int rejected = 0;
+            for (int i = 0; i < 4; i++) {
+                try {
+                    service.submit(new RenderJob(320, 180, i, false));
+                } catch (RejectedExecutionException e) {
+                    rejected++;
+                }
+            }
+            // Один поток и очередь на одно задание - хотя бы два из четырех не помещаются
+            assertTrue(rejected >= 2, "rejected " + rejected);
+            assertEquals(rejected, service.metrics().rejected());
+        }
+    }
+}